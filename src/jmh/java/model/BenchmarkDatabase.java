@@ -0,0 +1,71 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BenchmarkDatabase is a Database in its own temporary file, populated with
+ * a chosen number of generated items, for the benchmarks to measure. Items
+ * have the ids 1 to the number of rows.
+ *
+ * @author Liam Tripp
+ */
+public class BenchmarkDatabase {
+
+    private final Path databaseFile;
+    private final Database database;
+    private final int rows;
+
+    /**
+     * Constructor for BenchmarkDatabase. The database uses the default
+     * profile, so the benchmarks measure the settings used in production.
+     *
+     * @param rows the number of items in the items table
+     */
+    public BenchmarkDatabase(int rows) {
+        try {
+            databaseFile = Files.createTempFile("benchmark", ".db");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.rows = rows;
+        DatabaseConfig defaultConfig = DatabaseConfig.getDefault();
+        // slow statements are not logged, since explaining them would be measured too
+        DatabaseConfig config = new DatabaseConfig(databaseFile.toString(),
+                defaultConfig.profile(), defaultConfig.poolSize());
+        database = new Database(config.withSlowStatements(config.slowStatements().withThresholdMillis(-1)));
+        database.initializeDatabase();
+
+        List<Object[]> items = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            items.add(new Item(i, "item" + i, i % 10_000, i % 100).getValuesExceptId());
+        }
+        database.insertBatch(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                items, Database.DEFAULT_BATCH_SIZE);
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Shuts down the database and deletes its files.
+     */
+    public void delete() {
+        database.shutdown();
+        try {
+            for (String suffix : List.of("", "-wal", "-shm", "-journal")) {
+                Files.deleteIfExists(Path.of(databaseFile + suffix));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseBenchmark measures the time of the Database's CRUD methods and of
+ * mapping rows to Items for tables of different sizes.
+ *
+ * @author Liam Tripp
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    /** the number of rows read by each row mapping invocation */
+    private final static int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private BenchmarkDatabase benchmarkDatabase;
+    private Database database;
+    private Item item;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        benchmarkDatabase = new BenchmarkDatabase(rows);
+        database = benchmarkDatabase.getDatabase();
+        item = new Item(-1, "benchmarkItem", "10.99", 5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkDatabase.delete();
+    }
+
+    /**
+     * Returns the id of a random item of the table.
+     *
+     * @return an id from 1 to the number of rows
+     */
+    private String getRandomId() {
+        return String.valueOf(ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+
+    /**
+     * Inserts an item and deletes it, so that the table keeps the number of
+     * rows being measured.
+     */
+    @Benchmark
+    public long insertAndDelete() {
+        long id = database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), item.getValuesExceptId());
+        database.deleteFromTable(Table.ITEMS.getName(), String.valueOf(id));
+        return id;
+    }
+
+    @Benchmark
+    public List<Item> selectFromTableById() {
+        return database.selectFromTable(Table.ITEMS.getName(), "*", getRandomId());
+    }
+
+    @Benchmark
+    public List<Item> selectPage() {
+        return database.selectPage(Table.ITEMS.getName(), ThreadLocalRandom.current().nextInt(rows), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Item updateItem() {
+        return database.updateItem(getRandomId(), Map.of("stock", ThreadLocalRandom.current().nextInt(100)));
+    }
+
+    /**
+     * Maps a page of rows with Item(ResultSet), the row mapper of the items
+     * table, so that its cost can be compared with reading the rows alone.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void mapRows(Blackhole blackhole) {
+        long afterId = ThreadLocalRandom.current().nextInt(Math.max(rows - PAGE_SIZE, 1));
+        database.withConnection(pooledConnection -> {
+            PreparedStatement preparedStatement = pooledConnection.getStatementCache().prepare(
+                    "SELECT " + Table.ITEMS.getColumnList() + " FROM " + Table.ITEMS.getName() +
+                            " WHERE id > ? ORDER BY id LIMIT " + PAGE_SIZE);
+            preparedStatement.setLong(1, afterId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    blackhole.consume(new Item(resultSet));
+                }
+            }
+            return null;
+        });
+    }
+}
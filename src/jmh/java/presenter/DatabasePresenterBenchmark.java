@@ -0,0 +1,69 @@
+package presenter;
+
+import model.BenchmarkDatabase;
+import model.Item;
+import model.Table;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabasePresenterBenchmark measures the time of the DatabasePresenter's
+ * methods for tables of different sizes.
+ *
+ * @author Liam Tripp
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabasePresenterBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private BenchmarkDatabase benchmarkDatabase;
+    private DatabasePresenter databasePresenter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        benchmarkDatabase = new BenchmarkDatabase(rows);
+        databasePresenter = new DatabasePresenter();
+        databasePresenter.addDatabase(benchmarkDatabase.getDatabase());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkDatabase.delete();
+    }
+
+    /**
+     * Returns the id of a random item of the table.
+     *
+     * @return an id from 1 to the number of rows
+     */
+    private String getRandomId() {
+        return String.valueOf(ThreadLocalRandom.current().nextInt(rows) + 1);
+    }
+
+    /**
+     * Deletes an item and restores it, so the table is the same after each
+     * invocation.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void deleteAndRestoreItem(Blackhole blackhole) {
+        String itemId = getRandomId();
+        blackhole.consume(databasePresenter.deleteItem(itemId, "benchmark"));
+        blackhole.consume(databasePresenter.restoreItem(itemId));
+    }
+
+    @Benchmark
+    public Item readItem() {
+        return databasePresenter.readItem(Table.ITEMS.getName(), getRandomId());
+    }
+}
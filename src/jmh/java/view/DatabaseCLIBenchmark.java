@@ -0,0 +1,91 @@
+package view;
+
+import model.BenchmarkDatabase;
+import org.openjdk.jmh.annotations.*;
+import presenter.DatabasePresenter;
+
+import java.io.Writer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseCLIBenchmark measures the time of processing user input from
+ * matching it to a Command to formatting the output, for tables of
+ * different sizes.
+ *
+ * @author Liam Tripp
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseCLIBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    private BenchmarkDatabase benchmarkDatabase;
+    private DatabasePresenter databasePresenter;
+    private DatabaseCLI databaseCLI;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        benchmarkDatabase = new BenchmarkDatabase(rows);
+        databasePresenter = new DatabasePresenter();
+        databasePresenter.addDatabase(benchmarkDatabase.getDatabase());
+        databaseCLI = new DatabaseCLI();
+        databaseCLI.addPresenter(databasePresenter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // quit() would close System.in, which JMH uses to control the fork
+        benchmarkDatabase.delete();
+    }
+
+    /**
+     * Returns the id of a random item of the table.
+     *
+     * @return an id from 1 to the number of rows
+     */
+    private int getRandomId() {
+        return ThreadLocalRandom.current().nextInt(rows) + 1;
+    }
+
+    @Benchmark
+    public String readPage() {
+        return databaseCLI.processInput("READ items AFTER " + getRandomId() + " LIMIT 20");
+    }
+
+    /**
+     * Reads the whole table, writing each row as CSV to a writer that
+     * discards it, so only the reading and formatting of the rows is
+     * measured.
+     */
+    @Benchmark
+    public String readTableAsCSV() {
+        return databaseCLI.processInput("READ items FORMAT csv", Writer.nullWriter());
+    }
+
+    @Benchmark
+    public String updateItem() {
+        return databaseCLI.processInput("UPDATE " + getRandomId() + " price = 2.00, stock = 2");
+    }
+
+    @Benchmark
+    public String findByName() {
+        return databaseCLI.processInput("FIND name item" + getRandomId());
+    }
+
+    @Benchmark
+    public String searchNames() {
+        return databaseCLI.processInput("SEARCH item" + getRandomId() + " LIMIT 5");
+    }
+
+    @Benchmark
+    public String stats() {
+        return databaseCLI.processInput("STATS items");
+    }
+}
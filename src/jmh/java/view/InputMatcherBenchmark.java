@@ -0,0 +1,43 @@
+package view;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * InputMatcherBenchmark measures the time of matching user input to the
+ * regular expression of its Command.
+ *
+ * @author Liam Tripp
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputMatcherBenchmark {
+
+    @Param({"CREATE testName 1.99 1",
+            "CREATE testName 1.99 1; otherName 2 5; thirdName 3.50 0",
+            "READ items AFTER 10 LIMIT 20",
+            "UPDATE 1 name = 'newName', price = 2.00, stock = 2",
+            "DELETE 1 out of season",
+            "FIND price 1 10.99 LIMIT 10",
+            "SEARCH rubber duck PAGE 2",
+            "schmupdate 1"})
+    private String userInput;
+
+    private InputMatcher inputMatcher;
+
+    @Setup
+    public void setup() {
+        inputMatcher = new InputMatcher();
+    }
+
+    @Benchmark
+    public Matcher matchInputToCommandRegex() {
+        return inputMatcher.matchInputToCommandRegex(userInput);
+    }
+}
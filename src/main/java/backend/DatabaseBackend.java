@@ -3,6 +3,18 @@ package backend;
 import model.Database;
 import presenter.DatabasePresenter;
 import view.DatabaseCLI;
+import view.DatabaseHttpServer;
+import view.MetricsHttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * DatabaseBackend provides the main method used for interacting with the
@@ -12,20 +24,53 @@ import view.DatabaseCLI;
  */
 public class DatabaseBackend {
 
+    private final static String SCRIPT_OPTION = "--script";
+    private final static String TRANSACTION_OPTION = "--transaction";
+    private final static String HTTP_OPTION = "--http";
+    private final static String MAX_CONCURRENCY_OPTION = "--max-concurrency";
+    private final static String KEEP_ALIVE_OPTION = "--keep-alive";
+    private final static String PERSISTENT_OPTION = "--persistent";
+    private final static String METRICS_PORT_OPTION = "--metrics-port";
+    private final static String WRITE_BEHIND_OPTION = "--write-behind";
+    private final static int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+    private final static int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+    /** the JDK property for how long idle HTTP connections are kept open, in seconds */
+    private final static String IDLE_INTERVAL_PROPERTY = "sun.net.httpserver.idleInterval";
+    private final static int OUTPUT_BUFFER_SIZE = 1 << 16;
+
     private final Database database;
     private final DatabasePresenter databasePresenter;
     private final DatabaseCLI databaseCLI;
+    /** serves the metrics while the program runs, null if they are not served */
+    private MetricsHttpServer metricsHttpServer;
 
     /**
-     * Constructor for DatabaseBackend.
+     * Constructor for DatabaseBackend. The database is recreated and
+     * populated with items.json.
      */
     public DatabaseBackend() {
+        this(false);
+    }
+
+    /**
+     * Constructor for DatabaseBackend.
+     *
+     * @param persistent true if an existing database should be opened without recreating it, false otherwise
+     * @throws IllegalStateException if the existing database has a different schema
+     */
+    public DatabaseBackend(boolean persistent) {
         database = new Database();
         databasePresenter = new DatabasePresenter();
         databaseCLI = new DatabaseCLI();
 
-        database.initializeDatabase();
-        database.populateDatabase();
+        long startTime = System.nanoTime();
+        if (!persistent) {
+            database.initializeDatabase();
+            database.populateDatabase();
+        } else if (database.openDatabase()) {
+            System.out.println("Opened the existing database in " +
+                    (System.nanoTime() - startTime) / 1_000_000 + " ms");
+        }
         databasePresenter.addDatabase(database);
         databaseCLI.addPresenter(databasePresenter);
     }
@@ -34,17 +79,189 @@ public class DatabaseBackend {
      * Executes DatabaseBackend program.
      */
     public void execute() {
-        database.initializeDatabase();
-        database.populateDatabase();
-
         databaseCLI.introduction();
         while (databaseCLI.userWantsToQuit() == false) {
             databaseCLI.promptUserForInput();
         }
+        stopServingMetrics();
+    }
+
+    /**
+     * Executes a script of commands without prompting the user and exits.
+     * Output is buffered and written to System.out.
+     *
+     * @param reader the reader for the script
+     * @param singleTransaction true if the whole script should be committed as one transaction
+     */
+    public void executeScript(BufferedReader reader, boolean singleTransaction) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                OUTPUT_BUFFER_SIZE);
+        try {
+            databaseCLI.runScript(reader, writer, singleTransaction);
+        } finally {
+            databaseCLI.quit();
+            stopServingMetrics();
+        }
+    }
+
+    /**
+     * Queues creates and updates and commits them in batches on a writer
+     * thread instead of committing each one separately.
+     */
+    public void startWriteBehind() {
+        databasePresenter.startWriteBehind();
+    }
+
+    /**
+     * Serves the metrics of the commands and SQL operations in the
+     * Prometheus text format at GET /metrics on the loopback address.
+     *
+     * @param port the port to listen on
+     */
+    public void serveMetrics(int port) {
+        metricsHttpServer = new MetricsHttpServer(databasePresenter.getMetrics(), port);
+        metricsHttpServer.start();
+        System.out.println("Serving metrics at http://localhost:" + metricsHttpServer.getPort() +
+                MetricsHttpServer.METRICS_PATH);
     }
 
+    /**
+     * Stops serving the metrics if they are being served.
+     */
+    private void stopServingMetrics() {
+        if (metricsHttpServer != null) {
+            metricsHttpServer.stop();
+            metricsHttpServer = null;
+        }
+    }
+
+    /**
+     * Starts the HTTP interface and keeps the program running until it is
+     * terminated. Each request and its latency is logged to System.out.
+     *
+     * @param port the port to listen on
+     * @param maxConcurrentRequests the number of requests executed at the same time
+     * @param keepAliveSeconds how long an idle connection is kept open, 0 to close connections after each response
+     */
+    public void serve(int port, int maxConcurrentRequests, int keepAliveSeconds) {
+        DatabaseHttpServer httpServer = new DatabaseHttpServer(databasePresenter, port,
+                maxConcurrentRequests, keepAliveSeconds, System.out);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            httpServer.stop();
+            databasePresenter.terminateDatabase();
+        }));
+        httpServer.start();
+        System.out.println("Listening on port " + httpServer.getPort() + " with at most " +
+                maxConcurrentRequests + " concurrent requests.");
+    }
+
+    /**
+     * Creates a DatabaseBackend. Exits if the existing database cannot be
+     * opened.
+     *
+     * @param persistent true if an existing database should be opened without recreating it, false otherwise
+     * @return the DatabaseBackend
+     */
+    private static DatabaseBackend createBackend(boolean persistent) {
+        try {
+            return new DatabaseBackend(persistent);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage() + " Start without " + PERSISTENT_OPTION + " to recreate it.");
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Starts the command-line interface. With `--script [file]`, the commands
+     * in the file are executed instead of prompting the user. A file of '-'
+     * reads the commands from standard input. With `--transaction`, the whole
+     * script is committed as one transaction, or rolled back at its first
+     * failed command. With `--http [port]`, the HTTP
+     * interface is started instead, configured by `--max-concurrency [count]`
+     * and `--keep-alive [seconds]`. With `--persistent`, an existing database
+     * is opened as it is instead of being recreated and populated. With
+     * `--metrics-port [port]`, the metrics are served in the Prometheus text
+     * format while the command-line interface or script runs. The HTTP
+     * interface serves them at GET /metrics on its own port instead. With
+     * `--write-behind`, creates and updates are committed in batches by a
+     * writer thread.
+     *
+     * @param args the command-line arguments
+     */
     public static void main(String[] args) {
-        DatabaseBackend databaseBackend = new DatabaseBackend();
-        databaseBackend.execute();
+        String scriptFile = null;
+        boolean singleTransaction = false;
+        boolean persistent = false;
+        boolean writeBehind = false;
+        int httpPort = -1;
+        int metricsPort = -1;
+        int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        int keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case SCRIPT_OPTION -> scriptFile = args[++i];
+                    case TRANSACTION_OPTION -> singleTransaction = true;
+                    case HTTP_OPTION -> httpPort = Integer.parseInt(args[++i]);
+                    case MAX_CONCURRENCY_OPTION -> maxConcurrentRequests = Integer.parseInt(args[++i]);
+                    case KEEP_ALIVE_OPTION -> keepAliveSeconds = Integer.parseInt(args[++i]);
+                    case PERSISTENT_OPTION -> persistent = true;
+                    case METRICS_PORT_OPTION -> metricsPort = Integer.parseInt(args[++i]);
+                    case WRITE_BEHIND_OPTION -> writeBehind = true;
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (scriptFile == null && singleTransaction || httpPort < -1 || httpPort > 65535 ||
+                    metricsPort < -1 || metricsPort > 65535 || httpPort != -1 && metricsPort != -1 ||
+                    maxConcurrentRequests < 1 || keepAliveSeconds < 0) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: DatabaseBackend [" + PERSISTENT_OPTION + "] [" + SCRIPT_OPTION + " file|- [" + TRANSACTION_OPTION + "]] " +
+                    "[" + HTTP_OPTION + " port [" + MAX_CONCURRENCY_OPTION + " count] [" +
+                    KEEP_ALIVE_OPTION + " seconds]] [" + METRICS_PORT_OPTION + " port] [" + WRITE_BEHIND_OPTION + "]");
+            System.exit(1);
+        }
+
+        if (httpPort != -1) {
+            // read once by the JDK for every HTTP server, so it is set before any server is created
+            if (keepAliveSeconds > 0) {
+                System.setProperty(IDLE_INTERVAL_PROPERTY, String.valueOf(keepAliveSeconds));
+            }
+            DatabaseBackend databaseBackend = createBackend(persistent);
+            if (writeBehind) {
+                databaseBackend.startWriteBehind();
+            }
+            databaseBackend.serve(httpPort, maxConcurrentRequests, keepAliveSeconds);
+            return;
+        }
+        if (scriptFile == null) {
+            DatabaseBackend databaseBackend = createBackend(persistent);
+            if (writeBehind) {
+                databaseBackend.startWriteBehind();
+            }
+            if (metricsPort != -1) {
+                databaseBackend.serveMetrics(metricsPort);
+            }
+            databaseBackend.execute();
+            return;
+        }
+
+        try (BufferedReader reader = scriptFile.equals("-") ?
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)) :
+                Files.newBufferedReader(Path.of(scriptFile), StandardCharsets.UTF_8)) {
+            DatabaseBackend databaseBackend = createBackend(persistent);
+            if (writeBehind) {
+                databaseBackend.startWriteBehind();
+            }
+            if (metricsPort != -1) {
+                databaseBackend.serveMetrics(metricsPort);
+            }
+            databaseBackend.executeScript(reader, singleTransaction);
+        } catch (IOException e) {
+            System.err.println("Could not read script " + scriptFile + ": " + e.getMessage());
+            System.exit(1);
+        }
     }
 }
@@ -0,0 +1,176 @@
+package model;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool hands out a bounded number of read-only connections to the
+ * SQLite database. Connections are opened when first needed and reused
+ * afterwards. A caller that finds every connection in use waits until one is
+ * released. In WAL mode, readers do not wait for the DatabaseWriter or each
+ * other, and each statement reads a consistent snapshot of the committed
+ * rows.
+ *
+ * @author Liam Tripp
+ */
+class ConnectionPool {
+
+    /** how long a caller waits for a free connection before giving up */
+    private final static long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    private final DatabaseConfig config;
+    /** opened before any reader, so that the file exists and is in its journal mode */
+    private final DatabaseWriter writer;
+    private final int maximumSize;
+    private final BlockingQueue<PooledConnection> idleConnections;
+    private final List<PooledConnection> openedConnections;
+    private boolean closed;
+
+    /**
+     * Constructor for ConnectionPool.
+     *
+     * @param config the database file, the settings of each connection and the maximum number of open connections
+     * @param writer the writer of the database
+     */
+    ConnectionPool(DatabaseConfig config, DatabaseWriter writer) {
+        maximumSize = config.poolSize();
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.config = config;
+        this.writer = writer;
+        idleConnections = new ArrayBlockingQueue<>(maximumSize);
+        openedConnections = new ArrayList<>(maximumSize);
+        closed = false;
+    }
+
+    /**
+     * Returns an idle connection, opening a new one if the pool has not
+     * reached its maximum size. Otherwise, waits for a connection to be
+     * released.
+     *
+     * @return a connection for the exclusive use of the caller
+     */
+    PooledConnection acquire() {
+        PooledConnection pooledConnection = idleConnections.poll();
+        if (pooledConnection != null) {
+            return pooledConnection;
+        }
+        pooledConnection = openIfBelowMaximum();
+        if (pooledConnection != null) {
+            return pooledConnection;
+        }
+
+        try {
+            pooledConnection = idleConnections.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (pooledConnection == null) {
+            throw new RuntimeException("Timed out waiting for a database connection.");
+        }
+        return pooledConnection;
+    }
+
+    /**
+     * Returns a connection to the pool so that it can be used by others.
+     *
+     * @param pooledConnection the connection being released
+     */
+    void release(PooledConnection pooledConnection) {
+        idleConnections.offer(pooledConnection);
+    }
+
+    /**
+     * Opens a new connection if fewer than the maximum have been opened.
+     *
+     * @return the new connection, null if the pool is at its maximum size
+     */
+    private synchronized PooledConnection openIfBelowMaximum() {
+        if (closed) {
+            throw new IllegalStateException("The connection pool has been shut down.");
+        }
+        if (openedConnections.size() >= maximumSize) {
+            return null;
+        }
+
+        writer.getConnection();
+        PooledConnection pooledConnection = openConnection(config, true);
+        openedConnections.add(pooledConnection);
+        return pooledConnection;
+    }
+
+    /**
+     * Opens a connection to the database file with the settings of the
+     * configured profile.
+     *
+     * @param config the database file and the settings of the connection
+     * @param readOnly true if the connection can only read, false otherwise
+     * @return the new connection
+     */
+    static PooledConnection openConnection(DatabaseConfig config, boolean readOnly) {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        config.profile().configure(sqliteConfig, readOnly);
+        sqliteConfig.setReadOnly(readOnly);
+        // take the write lock when a transaction begins so that two
+        // transactions cannot deadlock while upgrading their locks
+        sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        try {
+            return new PooledConnection(sqliteConfig.createConnection(config.getUrl()));
+        } catch (SQLException e) {
+            // if the error message is "out of memory",
+            // it probably means no database file is found
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Prints the settings that SQLite is using for a connection. They are
+     * read back from SQLite, since some cannot always be applied (ex: the
+     * journal mode cannot change while another process has the file open).
+     *
+     * @param config the database file and the profile the connection was opened with
+     * @param connection the connection whose settings are printed
+     * @throws SQLException if a setting cannot be read
+     */
+    static void logSettings(DatabaseConfig config, Connection connection) throws SQLException {
+        List<String> settings = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            for (String pragmaName : DatabaseProfile.PRAGMA_NAMES) {
+                try (ResultSet resultSet = statement.executeQuery("PRAGMA " + pragmaName)) {
+                    settings.add(pragmaName + "=" + (resultSet.next() ? resultSet.getString(1) : ""));
+                }
+            }
+        }
+        System.out.println("Opened " + config.path() + " with the " + config.profile().getName() +
+                " profile: " + String.join(", ", settings));
+    }
+
+    /**
+     * Closes every connection opened by the pool.
+     */
+    synchronized void close() {
+        closed = true;
+        try {
+            for (PooledConnection pooledConnection : openedConnections) {
+                pooledConnection.close();
+            }
+        } catch (SQLException e) {
+            // connection close failed.
+            throw new RuntimeException(e);
+        } finally {
+            openedConnections.clear();
+            idleConnections.clear();
+        }
+    }
+}
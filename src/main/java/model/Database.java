@@ -1,71 +1,411 @@
 package model;
 
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Database contains the CRUD functionality for the SQLite database.
  * (CRUD = create, read, update, destroy)
+ * Database is thread-safe. Writes and transactions are queued for the
+ * DatabaseWriter, which executes them one at a time on the only connection
+ * that can write. In WAL mode, reads borrow a read-only connection from a
+ * bounded pool, so they run in parallel with each other and with the
+ * writer. With a rollback journal or an in-memory database, reads are
+ * queued for the writer's connection too.
  *
  * @author Liam Tripp
  */
 public class Database {
 
-    private final Connection connection;
-    private final Statement statement;
+    /** executes the writes on the only connection that can write */
+    private final DatabaseWriter writer;
+    /** hands out the read-only connections and their cached statements */
+    private final ConnectionPool connectionPool;
+    /** the connection of the transaction the writer thread is in, if any */
+    private final ThreadLocal<PooledConnection> transactionConnection;
+    /** the count, errors and latency of each SQL operation */
+    private final Metrics metrics;
+    /** where statements that take longer than the configured threshold are logged */
+    private final SlowStatementLog slowStatementLog;
     private final static String CLASS_LOADER_NAME = "org.sqlite.JDBC";
-    private final static String DATABASE_NAME = "jdbc:sqlite:warehouse.db";
+    /** the number of rows each page of a stream reads when reads use the writer's connection */
+    final static int STREAM_PAGE_SIZE = 1000;
+    /** the number of rows sent to SQLite in each JDBC batch when bulk loading */
+    public final static int DEFAULT_BATCH_SIZE = 1000;
+    /** the maximum number of read-only connections open at the same time, so reads can use every core */
+    public final static int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    /** the version of DDL.sql, stored in the database file as its user_version */
+    public final static int SCHEMA_VERSION = 3;
+    /** the full-text index of the names of items, kept in sync with items by triggers */
+    private final static String ITEMS_SEARCH_TABLE = "items_search";
+    /** copies a row of items into deleted_items with a comment and returns the copy */
+    private final static String COPY_TO_DELETED_ITEMS_STATEMENT = "INSERT INTO " + Table.DELETED_ITEMS.getName() +
+            " (" + Table.DELETED_ITEMS.getColumnList() + ") SELECT " + Table.ITEMS.getColumnList() +
+            ", ? FROM " + Table.ITEMS.getName() + " WHERE id = ? RETURNING " + Table.DELETED_ITEMS.getColumnList();
+    /** copies a row of deleted_items into items without its comment and returns the copy */
+    private final static String COPY_TO_ITEMS_STATEMENT = "INSERT INTO " + Table.ITEMS.getName() +
+            " (" + Table.ITEMS.getColumnList() + ") SELECT " + Table.ITEMS.getColumnList() +
+            " FROM " + Table.DELETED_ITEMS.getName() + " WHERE id = ? RETURNING " + Table.ITEMS.getColumnList();
 
+    /**
+     * Constructor for Database. The configuration is loaded from the
+     * configuration file and system properties.
+     */
     public Database() {
+        this(DatabaseConfig.load());
+    }
+
+    /**
+     * Constructor for Database. The configuration is loaded from the
+     * configuration file and system properties, except for the pool size.
+     *
+     * @param poolSize the maximum number of read-only connections open at the same time
+     */
+    public Database(int poolSize) {
+        this(DatabaseConfig.load().withPoolSize(poolSize));
+    }
+
+    /**
+     * Constructor for Database.
+     *
+     * @param config the database file, the settings of its connections and the size of the connection pool
+     */
+    public Database(DatabaseConfig config) {
         // load the sqlite-JDBC driver using the current class loader
         try {
             Class.forName(CLASS_LOADER_NAME);
-            connection = DriverManager.getConnection(DATABASE_NAME);
-            statement = connection.createStatement();
         } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
-        } catch (SQLException e) {
-            // if the error message is "out of memory",
-            // it probably means no database file is found
-            throw new RuntimeException(e);
         }
+        writer = new DatabaseWriter(config);
+        connectionPool = new ConnectionPool(config, writer);
+        transactionConnection = new ThreadLocal<>();
+        metrics = new Metrics();
+        slowStatementLog = new SlowStatementLog(config.slowStatements());
+    }
+
+    /**
+     * Returns the metrics of the Database's SQL operations. Other layers
+     * record their operations in the same Metrics.
+     *
+     * @return the metrics of the Database
+     */
+    public Metrics getMetrics() {
+        return metrics;
     }
 
     /**
-     * Creates the database.
+     * Creates the database. Existing tables and their rows are dropped. The
+     * database is stamped with the current schema version.
      */
     public void initializeDatabase() {
         InputFileReader inputFileReader = new InputFileReader("DDL", "sql");
         String sqlTableCreateStatement = inputFileReader.getSQLFileAsString();
         executeStatement(sqlTableCreateStatement);
+        verifySchema();
+        executeStatement("PRAGMA user_version = " + SCHEMA_VERSION);
+    }
+
+    /**
+     * Opens the database without losing its rows. If the database file was
+     * created with an earlier schema version, it is upgraded by the files
+     * Upgrade[version].sql. If the file is new, the database is created and
+     * populated with items.json. A file without a schema version is treated
+     * as the first version if its tables match it.
+     *
+     * @return true if an existing database was opened, false if it was created
+     * @throws IllegalStateException if the database was created with a different schema
+     */
+    public boolean openDatabase() {
+        int schemaVersion = getSchemaVersion();
+        if (schemaVersion > SCHEMA_VERSION) {
+            throw new IllegalStateException("The database has schema version " + schemaVersion +
+                    " but version " + SCHEMA_VERSION + " is required.");
+        }
+        if (schemaVersion == 0 && !hasTables()) {
+            initializeDatabase();
+            populateDatabase();
+            return false;
+        }
+        // files created before the schema was stamped have its first version
+        upgradeSchema(Math.max(schemaVersion, 1));
+        return true;
+    }
+
+    /**
+     * Upgrades the schema to the current version in one transaction and
+     * checks the result, so a failed upgrade leaves the file as it was.
+     *
+     * @param schemaVersion the version the schema is upgraded from
+     */
+    private void upgradeSchema(int schemaVersion) {
+        inTransaction(pooledConnection -> {
+            for (int version = schemaVersion + 1; version <= SCHEMA_VERSION; version++) {
+                InputFileReader inputFileReader = new InputFileReader("Upgrade" + version, "sql");
+                executeStatement(inputFileReader.getSQLFileAsString());
+            }
+            verifySchema();
+            executeStatement("PRAGMA user_version = " + SCHEMA_VERSION);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the schema version the database was created with.
+     *
+     * @return the user_version of the database file, 0 if it has no schema
+     */
+    public int getSchemaVersion() {
+        return Integer.parseInt(getPragma("user_version"));
+    }
+
+    /**
+     * Returns whether the database file contains any table.
+     *
+     * @return true if a table exists, false otherwise
+     */
+    private boolean hasTables() {
+        return withConnection(pooledConnection -> {
+            try (Statement statement = pooledConnection.getConnection().createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT 1 FROM sqlite_schema WHERE type = 'table' LIMIT 1")) {
+                return resultSet.next();
+            }
+        });
+    }
+
+    /**
+     * Checks that the columns of every table match the schema registry in
+     * Table, since rows are read by column index.
+     */
+    private void verifySchema() {
+        withConnection(pooledConnection -> {
+            for (Table table : Table.values()) {
+                List<String> columnNames = new ArrayList<>();
+                try (Statement statement = pooledConnection.getConnection().createStatement();
+                     ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table.getName() + ")")) {
+                    while (resultSet.next()) {
+                        columnNames.add(resultSet.getString("name"));
+                    }
+                }
+                if (!columnNames.equals(table.getColumnNames())) {
+                    throw new IllegalStateException("Table " + table.getName() + " has columns " +
+                            columnNames + " but " + table.getColumnNames() + " were expected.");
+                }
+            }
+            return null;
+        });
     }
 
     /**
      * Adds values from items.json to the ITEMS table.
      */
     public void populateDatabase() {
+        populateDatabase(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Adds values from items.json to the ITEMS table in a single transaction,
+     * sending the rows to SQLite in batches. Prints the loading rate once
+     * finished.
+     *
+     * @param batchSize the number of rows in each JDBC batch
+     * @return the number of rows inserted
+     */
+    public int populateDatabase(int batchSize) {
         InputFileReader inputFileReader = new InputFileReader(Table.ITEMS.getName(), "json");
-        List<Item> itemsFromJSONFile = inputFileReader.getItemsFromJSONFile();
+        return populateDatabase(inputFileReader.getItemIteratorFromJSONFile(), batchSize);
+    }
+
+    /**
+     * Adds the items from a JSON file with the same layout as items.json to
+     * the ITEMS table. The file is streamed, so it may be larger than the heap.
+     *
+     * @param jsonFile the path to the JSON file
+     * @param batchSize the number of rows in each JDBC batch
+     * @return the number of rows inserted
+     */
+    public int populateDatabase(Path jsonFile, int batchSize) {
+        return populateDatabase(InputFileReader.getItemIteratorFromJSONFile(jsonFile), batchSize);
+    }
 
-        String columnsToInsert = Item.getAttributeNamesExceptId();
-        for (Item item : itemsFromJSONFile) {
-            String valuesToInsert = item.getValuesInSQLFormatExceptId();
-            insert(Table.ITEMS.getName(), columnsToInsert, valuesToInsert);
+    /**
+     * Inserts items into the ITEMS table as they are read from a JSON file.
+     *
+     * @param jsonItemIterator streams the items from the JSON file
+     * @param batchSize the number of rows in each JDBC batch
+     * @return the number of rows inserted
+     */
+    private int populateDatabase(JSONItemIterator jsonItemIterator, int batchSize) {
+        long startTime = System.nanoTime();
+        int rowsInserted;
+        try (jsonItemIterator) {
+            Iterable<Object[]> rows = () -> new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return jsonItemIterator.hasNext();
+                }
+
+                @Override
+                public Object[] next() {
+                    return jsonItemIterator.next().getValuesExceptId();
+                }
+            };
+            rowsInserted = insertBatch(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                    rows, batchSize);
         }
+
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+        long rowsPerSecond = rowsInserted * 1_000_000_000L / elapsedNanos;
+        System.out.println("Populated " + Table.ITEMS.getName() + " with " + rowsInserted +
+                " rows in " + elapsedNanos / 1_000_000 + " ms (" + rowsPerSecond + " rows/s)");
+        return rowsInserted;
     }
 
     /**
-     * Inserts a set of values into a table.
+     * Inserts many rows into a table in one transaction. The rows are bound
+     * to a single cached PreparedStatement and sent to SQLite in batches. If
+     * any row fails, none of the rows are inserted. Each batch is logged as
+     * one statement if it is slow, with the values of its last row.
      *
      * @param tableName the name of the table to insert into
      * @param columns the set of columns selected for insertion as a string
-     * @param values the set of values to insert as a string
+     * @param rows the values of each row, one for each column
+     * @param batchSize the number of rows in each JDBC batch
+     * @return the number of rows inserted
      */
-    public void insert(String tableName, String columns, String values) {
+    public int insertBatch(String tableName, String columns, Iterable<Object[]> rows, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+
+        return inTransaction("insert_batch", pooledConnection -> {
+            PreparedStatement preparedStatement = null;
+            String statementToExecute = null;
+            Object[] lastValues = null;
+            int rowsInserted = 0;
+            int rowsInBatch = 0;
+
+            try {
+                for (Object[] values : rows) {
+                    if (preparedStatement == null) {
+                        statementToExecute = "INSERT INTO " + tableName +
+                                "(" + columns + ") VALUES (" + getPlaceholders(values.length) + ")";
+                        preparedStatement = pooledConnection.getStatementCache().prepare(statementToExecute);
+                    }
+                    bindValues(preparedStatement, 1, values);
+                    preparedStatement.addBatch();
+                    lastValues = values;
+                    rowsInBatch++;
+                    if (rowsInBatch == batchSize) {
+                        long startTime = System.nanoTime();
+                        preparedStatement.executeBatch();
+                        logIfSlow(pooledConnection, statementToExecute, lastValues, rowsInBatch, startTime);
+                        rowsInserted += rowsInBatch;
+                        rowsInBatch = 0;
+                    }
+                }
+                if (rowsInBatch > 0) {
+                    long startTime = System.nanoTime();
+                    preparedStatement.executeBatch();
+                    logIfSlow(pooledConnection, statementToExecute, lastValues, rowsInBatch, startTime);
+                    rowsInserted += rowsInBatch;
+                }
+            } catch (SQLException | RuntimeException e) {
+                // the cached statement must not keep the rows of the failed batch
+                if (preparedStatement != null) {
+                    preparedStatement.clearBatch();
+                }
+                throw e;
+            }
+            return rowsInserted;
+        });
+    }
+
+    /**
+     * Inserts a set of values into a table. The values are bound as
+     * parameters of a cached PreparedStatement.
+     *
+     * @param tableName the name of the table to insert into
+     * @param columns the set of columns selected for insertion as a string
+     * @param values the values to insert, one for each column
+     * @return the id of the inserted row
+     */
+    public long insert(String tableName, String columns, Object... values) {
         String statementToExecute = "INSERT INTO " + tableName +
-                "(" + columns + ") VALUES (" + values + ");";
-        executeStatement(statementToExecute);
+                "(" + columns + ") VALUES (" + getPlaceholders(values.length) + ")";
+        return withWriter("insert", pooledConnection -> {
+            StatementCache statementCache = pooledConnection.getStatementCache();
+            long startTime = System.nanoTime();
+            PreparedStatement preparedStatement = statementCache.prepare(statementToExecute);
+            bindValues(preparedStatement, 1, values);
+            int rows = preparedStatement.executeUpdate();
+            logIfSlow(pooledConnection, statementToExecute, values, rows, startTime);
+            return getLastInsertId(statementCache);
+        });
+    }
+
+    /**
+     * Inserts rows into a table in one transaction and returns the ids
+     * SQLite assigned to them. Each row is inserted with a cached
+     * INSERT...RETURNING statement, so the ids are correct even if they are
+     * not consecutive. If any row fails, none of the rows are inserted. The
+     * rows are logged as one statement if they are slow, with the values of
+     * the last row.
+     *
+     * @param tableName the name of the table to insert into
+     * @param columns the set of columns selected for insertion as a string
+     * @param rows the values of each row, one for each column
+     * @return the id of each inserted row, in the order of the rows
+     */
+    public long[] insertAll(String tableName, String columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new long[0];
+        }
+        String statementToExecute = "INSERT INTO " + tableName + "(" + columns + ") VALUES (" +
+                getPlaceholders(rows.get(0).length) + ") RETURNING id";
+        return inTransaction("insert_all", pooledConnection -> {
+            long startTime = System.nanoTime();
+            long[] ids = new long[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, rows.get(i))) {
+                    resultSet.next();
+                    ids[i] = resultSet.getLong(1);
+                }
+            }
+            logIfSlow(pooledConnection, statementToExecute, rows.get(rows.size() - 1), ids.length, startTime);
+            return ids;
+        });
+    }
+
+    /**
+     * Returns the id of the last row inserted on a connection. The connection
+     * is not shared while it is held, so the row is the holder's.
+     *
+     * @param statementCache the cached statements of the connection
+     * @return the id of the last inserted row
+     * @throws SQLException if the id cannot be read
+     */
+    private static long getLastInsertId(StatementCache statementCache) throws SQLException {
+        try (ResultSet resultSet = statementCache.prepare("SELECT last_insert_rowid()").executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
     }
 
     /**
@@ -79,25 +419,297 @@ public class Database {
      * @return list of selected rows in the selected table
      */
     public List<Item> selectFromTable(String tableName, String selectedColumns, String itemId) {
-        ResultSet resultSet = getResultSet(tableName, selectedColumns, itemId);
-        List<Item> items = new ArrayList<>();
+        Table table = getTable(tableName);
+        // select the columns in the order of the schema registry so that rows can be mapped by index
+        String columns = selectedColumns.equals("*") ? table.getColumnList() : selectedColumns;
+        String statementToExecute = "SELECT " + columns + " FROM " + tableName +
+                (itemId.isBlank() ? "" : " WHERE id = ?");
+        return withConnection("select", pooledConnection -> {
+            Object[] values = itemId.isBlank() ? new Object[0] : new Object[]{parseId(itemId)};
+            long startTime = System.nanoTime();
+            List<Item> items = new ArrayList<>();
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, values)) {
+                while (resultSet.next()) {
+                    items.add(table.mapRow(resultSet));
+                }
+            }
+            logIfSlow(pooledConnection, statementToExecute, values, items.size(), startTime);
+            return items;
+        });
+    }
 
-        try {
-            while (resultSet.next()) {
-                if (tableName.equals(Table.DELETED_ITEMS.getName())) {
-                    DeletedItem item = new DeletedItem(resultSet);
-                    items.add(item);
-                } else {
-                    Item item = new Item(resultSet);
-                    items.add(item);
+    /**
+     * Returns a page of Items from the selected table, ordered by id. Only
+     * the rows with an id greater than afterId are read, so each page costs
+     * the same regardless of how far into the table it is.
+     *
+     * @param tableName the name of the table being selected from
+     * @param afterId the id of the last item of the previous page
+     * @param limit the maximum number of items in the page
+     * @return the items in the page
+     */
+    public List<Item> selectPage(String tableName, long afterId, int limit) {
+        try (Stream<Item> items = streamFromTable(tableName, afterId, limit)) {
+            return items.toList();
+        }
+    }
+
+    /**
+     * Returns the items of the items table that match a filter, ordered by
+     * the filter's column and then by id. The filter's column is indexed, so
+     * only the matching rows are read.
+     *
+     * @param filter the condition the items must match
+     * @param limit the maximum number of items returned, negative for no limit
+     * @param values the values the filter's column is compared to, with prices in cents
+     * @return the matching items
+     * @throws IllegalArgumentException if the number of values does not match the filter
+     */
+    public List<Item> findItems(ItemFilter filter, int limit, Object... values) {
+        if (values.length != filter.getValueCount()) {
+            throw new IllegalArgumentException(filter + " requires " + filter.getValueCount() +
+                    " values but " + values.length + " were provided.");
+        }
+        String statementToExecute = "SELECT " + Table.ITEMS.getColumnList() + " FROM " + Table.ITEMS.getName() +
+                " WHERE " + filter.getCondition() + " ORDER BY " + filter.getColumn() + ", id LIMIT ?";
+        Object[] parameters = Arrays.copyOf(values, values.length + 1);
+        parameters[values.length] = limit;
+        return withConnection("find", pooledConnection -> {
+            long startTime = System.nanoTime();
+            List<Item> items = new ArrayList<>();
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, parameters)) {
+                while (resultSet.next()) {
+                    items.add(Table.ITEMS.mapRow(resultSet));
                 }
+            }
+            logIfSlow(pooledConnection, statementToExecute, parameters, items.size(), startTime);
+            return items;
+        });
+    }
 
+    /**
+     * Returns the items of the items table whose names contain every search
+     * term, best matches first. The names are searched with the full-text
+     * index items_search, which matches any part of a name that is at least
+     * three characters long, so the table is not scanned.
+     *
+     * @param terms the terms every name must contain, ignoring case
+     * @param offset the number of best matches skipped
+     * @param limit the maximum number of items returned
+     * @return the matching items ordered by rank
+     */
+    public List<Item> searchItems(List<String> terms, int offset, int limit) {
+        String statementToExecute = "SELECT " + Table.ITEMS.getName() + "." +
+                String.join(", " + Table.ITEMS.getName() + ".", Table.ITEMS.getColumnNames()) +
+                " FROM " + ITEMS_SEARCH_TABLE + " JOIN " + Table.ITEMS.getName() +
+                " ON " + Table.ITEMS.getName() + ".id = " + ITEMS_SEARCH_TABLE + ".rowid" +
+                " WHERE " + ITEMS_SEARCH_TABLE + " MATCH ? ORDER BY rank, " + Table.ITEMS.getName() + ".id" +
+                " LIMIT ? OFFSET ?";
+        Object[] parameters = {getMatchQuery(terms), limit, offset};
+        return withConnection("search", pooledConnection -> {
+            long startTime = System.nanoTime();
+            List<Item> items = new ArrayList<>();
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, parameters)) {
+                while (resultSet.next()) {
+                    items.add(Table.ITEMS.mapRow(resultSet));
+                }
             }
-            resultSet.close();
+            logIfSlow(pooledConnection, statementToExecute, parameters, items.size(), startTime);
+            return items;
+        });
+    }
+
+    /**
+     * Creates an FTS5 query that matches text containing every term. Each
+     * term is quoted, so characters in it are never read as query syntax.
+     *
+     * @param terms the terms of the query
+     * @return the query (ex: "duck" "rub" for the terms duck and rub)
+     */
+    private static String getMatchQuery(List<String> terms) {
+        List<String> phrases = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            phrases.add('"' + term.replace("\"", "\"\"") + '"');
+        }
+        return String.join(" ", phrases);
+    }
+
+    /**
+     * Returns the Items of the selected table as a Stream backed by the live
+     * cursor of the query, ordered by id. Rows are read as the Stream is
+     * consumed, so memory use does not depend on the size of the table.
+     * The Stream holds a connection until it is closed, so it should be used
+     * in a try-with-resources statement.
+     *
+     * @param tableName the name of the table being selected from
+     * @param afterId only items with a greater id are returned
+     * @param limit the maximum number of items returned, negative for no limit
+     * @return a Stream of the selected items
+     */
+    public Stream<Item> streamFromTable(String tableName, long afterId, int limit) {
+        Table table = getTable(tableName);
+        String statementToExecute = "SELECT " + table.getColumnList() + " FROM " + tableName +
+                " WHERE id > ? ORDER BY id LIMIT ?";
+        PooledConnection currentConnection = transactionConnection.get();
+        if (currentConnection == null && !writer.isWriteAheadLog()) {
+            return streamInPages(table, statementToExecute, afterId, limit);
+        }
+        PooledConnection pooledConnection = currentConnection != null ?
+                currentConnection : connectionPool.acquire();
+        ResultSet resultSet;
+        // only opening the cursor is measured, since the rows are read at the pace of the caller,
+        // but the slow-statement log records the whole time until the cursor is closed
+        long startTime = System.nanoTime();
+        try {
+            PreparedStatement preparedStatement = pooledConnection.getStatementCache().prepare(statementToExecute);
+            preparedStatement.setLong(1, afterId);
+            preparedStatement.setInt(2, limit);
+            resultSet = preparedStatement.executeQuery();
         } catch (SQLException e) {
+            if (currentConnection == null) {
+                connectionPool.release(pooledConnection);
+            }
+            metrics.record(Metrics.Group.SQL, "stream", System.nanoTime() - startTime, true);
             throw new RuntimeException(e);
         }
-        return items;
+        metrics.record(Metrics.Group.SQL, "stream", System.nanoTime() - startTime, false);
+
+        // the cursor is closed once it is exhausted or the Stream is closed
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicLong rowsRead = new AtomicLong();
+        Runnable closeCursor = () -> {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                resultSet.close();
+                logIfSlow(pooledConnection, statementToExecute, new Object[]{afterId, limit}, rowsRead.get(),
+                        startTime);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                if (currentConnection == null) {
+                    connectionPool.release(pooledConnection);
+                }
+            }
+        };
+
+        Spliterator<Item> cursor = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Item> action) {
+                if (closed.get()) {
+                    return false;
+                }
+                try {
+                    if (!resultSet.next()) {
+                        closeCursor.run();
+                        return false;
+                    }
+                    rowsRead.incrementAndGet();
+                    action.accept(table.mapRow(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(cursor, false).onClose(closeCursor);
+    }
+
+    /**
+     * Returns the Items of the selected table as a Stream. See
+     * streamFromTable(String, long, int).
+     *
+     * @param tableName the name of the table being selected from
+     * @return a Stream of every item in the table
+     */
+    public Stream<Item> streamFromTable(String tableName) {
+        return streamFromTable(tableName, Long.MIN_VALUE, -1);
+    }
+
+    /**
+     * Returns the items of a table as a Stream that reads STREAM_PAGE_SIZE
+     * rows at a time with the writer's connection. No cursor is held between
+     * pages, so writes are not blocked while the Stream is consumed, but
+     * each page sees the rows committed when it is read.
+     *
+     * @param table the table being selected from
+     * @param statementToExecute the query of the rows after an id, up to a limit
+     * @param afterId only items with a greater id are returned
+     * @param limit the maximum number of items returned, negative for no limit
+     * @return a Stream of the selected items
+     */
+    private Stream<Item> streamInPages(Table table, String statementToExecute, long afterId, int limit) {
+        Spliterator<Item> pages = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<Item> page = Collections.emptyIterator();
+            private long lastId = afterId;
+            private int remaining = limit;
+            private boolean lastPage = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Item> action) {
+                if (!page.hasNext()) {
+                    if (lastPage || remaining == 0) {
+                        return false;
+                    }
+                    int pageSize = remaining < 0 ? STREAM_PAGE_SIZE : Math.min(remaining, STREAM_PAGE_SIZE);
+                    List<Item> items = readPage(table, statementToExecute, lastId, pageSize);
+                    lastPage = items.size() < pageSize;
+                    page = items.iterator();
+                    if (!page.hasNext()) {
+                        return false;
+                    }
+                }
+                Item item = page.next();
+                lastId = item.getId();
+                if (remaining > 0) {
+                    remaining--;
+                }
+                action.accept(item);
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    /**
+     * Reads one page of a stream.
+     *
+     * @param table the table being selected from
+     * @param statementToExecute the query of the rows after an id, up to a limit
+     * @param afterId only items with a greater id are returned
+     * @param pageSize the maximum number of items returned
+     * @return the items of the page
+     */
+    private List<Item> readPage(Table table, String statementToExecute, long afterId, int pageSize) {
+        return withConnection("stream", pooledConnection -> {
+            Object[] values = {afterId, pageSize};
+            long startTime = System.nanoTime();
+            List<Item> items = new ArrayList<>(pageSize);
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, values)) {
+                while (resultSet.next()) {
+                    items.add(table.mapRow(resultSet));
+                }
+            }
+            logIfSlow(pooledConnection, statementToExecute, values, items.size(), startTime);
+            return items;
+        });
+    }
+
+    /**
+     * Returns the Table with the provided name from the schema registry.
+     *
+     * @param tableName the name of the table
+     * @return the Table with the provided name
+     */
+    private static Table getTable(String tableName) {
+        Table table = Table.getTable(tableName);
+        if (table == null) {
+            throw new IllegalArgumentException("Table " + tableName + " does not exist.");
+        }
+        return table;
     }
 
     /**
@@ -112,20 +724,44 @@ public class Database {
     }
 
     /**
-     * Updates a single attribute of a single item from a table
+     * Updates one or more attributes of a single item from a table. The
+     * update and the read of the updated row are a single statement.
      *
      * @param itemId the item being updated
-     * @param columnValuePairs the name-value pairs used to update the Item
+     * @param columnValues the column names and new values used to update the Item
+     * @return the updated item if it exists, null otherwise
      */
-    public Item updateItem(String itemId, String columnValuePairs) {
+    public Item updateItem(String itemId, Map<String, Object> columnValues) {
+        StringBuilder setClause = new StringBuilder();
+        for (String column : columnValues.keySet()) {
+            if (column.equals("id") || Table.ITEMS.getColumnIndex(column) == -1) {
+                throw new IllegalArgumentException("Column " + column + " cannot be updated.");
+            }
+            if (setClause.length() > 0) {
+                setClause.append(", ");
+            }
+            setClause.append(column).append(" = ?");
+        }
         String statementToExecute = "UPDATE " + Table.ITEMS.getName() + " SET " +
-                columnValuePairs + " WHERE id = " + itemId;
-        // check that item exists
-        if (selectFromTable(Table.ITEMS.getName(), "*", itemId).isEmpty()) {
-            return null;
+                setClause + " WHERE id = ? RETURNING " + Table.ITEMS.getColumnList();
+
+        Object[] values = new Object[columnValues.size() + 1];
+        int index = 0;
+        for (Object value : columnValues.values()) {
+            values[index++] = value;
         }
-        executeStatement(statementToExecute);
-        return selectFromTable(Table.ITEMS.getName(), "*", itemId).get(0);
+        values[index] = parseId(itemId);
+
+        return withWriter("update", pooledConnection -> {
+            long startTime = System.nanoTime();
+            Item item;
+            // RETURNING reads the updated row back, no row means the item does not exist
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, values)) {
+                item = resultSet.next() ? Table.ITEMS.mapRow(resultSet) : null;
+            }
+            logIfSlow(pooledConnection, statementToExecute, values, item == null ? 0 : 1, startTime);
+            return item;
+        });
     }
 
     /**
@@ -135,9 +771,80 @@ public class Database {
      * @param itemId the provided item ids
      */
     public void deleteFromTable(String tableName, String itemId) {
-        String statementToExecute = "DELETE FROM " + tableName +
-                " WHERE id = " + itemId;
-        executeStatement(statementToExecute);
+        String statementToExecute = "DELETE FROM " + tableName + " WHERE id = ?";
+        Object[] values = {parseId(itemId)};
+        withWriter("delete", pooledConnection -> {
+            long startTime = System.nanoTime();
+            PreparedStatement preparedStatement = pooledConnection.getStatementCache().prepare(statementToExecute);
+            bindValues(preparedStatement, 1, values);
+            int rows = preparedStatement.executeUpdate();
+            logIfSlow(pooledConnection, statementToExecute, values, rows, startTime);
+            return rows;
+        });
+    }
+
+    /**
+     * Moves an item from the items table to the deleted_items table in a
+     * single transaction. The row is copied and deleted inside SQLite, so the
+     * item is never in both or neither of the tables.
+     *
+     * @param itemId the id of the item
+     * @param comment the deletion comment for the item, blank for none
+     * @return the row inserted into deleted_items, null if there is no item with the id
+     */
+    public Item deleteItem(String itemId, String comment) {
+        return moveItem("delete_item", Table.ITEMS, Table.DELETED_ITEMS, COPY_TO_DELETED_ITEMS_STATEMENT, itemId,
+                comment.isBlank() ? null : comment);
+    }
+
+    /**
+     * Moves an item from the deleted_items table back to the items table in
+     * a single transaction. The deletion comment is discarded.
+     *
+     * @param itemId the id of the item
+     * @return the row inserted into items, null if there is no deleted item with the id
+     */
+    public Item restoreItem(String itemId) {
+        return moveItem("restore_item", Table.DELETED_ITEMS, Table.ITEMS, COPY_TO_ITEMS_STATEMENT, itemId);
+    }
+
+    /**
+     * Copies a row into another table and deletes it from its own table in a
+     * single transaction.
+     *
+     * @param operationName the name the move is measured under
+     * @param sourceTable the table the row is moved from
+     * @param destinationTable the table the row is moved to
+     * @param copyStatement the INSERT...SELECT...RETURNING statement that copies the row
+     * @param itemId the id of the row
+     * @param values the values bound before the id in the copy statement
+     * @return the row inserted into the destination table, null if the source table has no row with the id
+     */
+    private Item moveItem(String operationName, Table sourceTable, Table destinationTable,
+                          String copyStatement, String itemId, Object... values) {
+        long id = parseId(itemId);
+        Object[] copyValues = Arrays.copyOf(values, values.length + 1);
+        copyValues[values.length] = id;
+        String deleteStatement = "DELETE FROM " + sourceTable.getName() + " WHERE id = ?";
+        Object[] deleteValues = {id};
+        return inTransaction(operationName, pooledConnection -> {
+            long startTime = System.nanoTime();
+            Item item;
+            try (ResultSet resultSet = getResultSet(pooledConnection, copyStatement, copyValues)) {
+                item = resultSet.next() ? destinationTable.mapRow(resultSet) : null;
+            }
+            logIfSlow(pooledConnection, copyStatement, copyValues, item == null ? 0 : 1, startTime);
+            if (item == null) {
+                return null;
+            }
+
+            startTime = System.nanoTime();
+            PreparedStatement preparedStatement = pooledConnection.getStatementCache().prepare(deleteStatement);
+            bindValues(preparedStatement, 1, deleteValues);
+            int rows = preparedStatement.executeUpdate();
+            logIfSlow(pooledConnection, deleteStatement, deleteValues, rows, startTime);
+            return item;
+        });
     }
 
     /**
@@ -147,29 +854,62 @@ public class Database {
      * @return the number of rows in the table
      */
     public int getSizeOfTable(String tableName) {
-        return selectFromTable(tableName, "*").size();
+        String statementToExecute = "SELECT COUNT(*) FROM " + tableName;
+        return withConnection("count", pooledConnection -> {
+            long startTime = System.nanoTime();
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute)) {
+                resultSet.next();
+                int size = resultSet.getInt(1);
+                logIfSlow(pooledConnection, statementToExecute, new Object[0], 1, startTime);
+                return size;
+            }
+        });
     }
 
     /**
-     * Selects and returns a ResultSet of selected rows from a selected table.
-     * If itemId is blank, it selects all rows in the table.
+     * Returns the row count, price and stock aggregates, inventory value
+     * and low-stock count of a table. They are computed by SQLite in a
+     * single pass without creating any Items.
      *
      * @param tableName the name of the table
-     * @param selectedColumns the columns to be selected
-     * @param itemId if left blank, returns . Otherwise, returns a single item
-     * @return resultSet containing one or more rows of a table
+     * @param lowStockThreshold rows with less stock than this are counted as low stock
+     * @return the statistics of the table
      */
-    public ResultSet getResultSet(String tableName, String selectedColumns, String itemId) {
-        String statementToExecute = "SELECT " + selectedColumns + " FROM " + tableName;
-        if (!itemId.isBlank()) {
-            statementToExecute += " WHERE id = " + itemId;
-        }
+    public TableStatistics getTableStatistics(String tableName, int lowStockThreshold) {
+        String statementToExecute = "SELECT COUNT(*), " +
+                "TOTAL(price), IFNULL(AVG(price), 0), IFNULL(MIN(price), 0), IFNULL(MAX(price), 0), " +
+                "TOTAL(stock), IFNULL(AVG(stock), 0), IFNULL(MIN(stock), 0), IFNULL(MAX(stock), 0), " +
+                "TOTAL(price * stock), TOTAL(stock < ?) FROM " + tableName;
+        return withConnection("statistics", pooledConnection -> {
+            long startTime = System.nanoTime();
+            try (ResultSet resultSet = getResultSet(pooledConnection, statementToExecute, lowStockThreshold)) {
+                resultSet.next();
+                TableStatistics statistics = new TableStatistics(resultSet.getLong(1),
+                        resultSet.getLong(2), resultSet.getDouble(3), resultSet.getLong(4), resultSet.getLong(5),
+                        resultSet.getLong(6), resultSet.getDouble(7), resultSet.getLong(8), resultSet.getLong(9),
+                        resultSet.getLong(10), lowStockThreshold, resultSet.getLong(11));
+                logIfSlow(pooledConnection, statementToExecute, new Object[]{lowStockThreshold}, 1, startTime);
+                return statistics;
+            }
+        });
+    }
 
-        try {
-            return statement.executeQuery(statementToExecute);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * Executes a query with the cached PreparedStatement of its SQL and
+     * returns its rows. The ResultSet must be closed before the connection
+     * is released.
+     *
+     * @param pooledConnection the connection the statement is executed on
+     * @param sql the query with '?' placeholders for its values
+     * @param values the values bound to the placeholders, in order
+     * @return resultSet containing the rows of the query
+     * @throws SQLException if the statement cannot be executed
+     */
+    private static ResultSet getResultSet(PooledConnection pooledConnection, String sql,
+                                          Object... values) throws SQLException {
+        PreparedStatement preparedStatement = pooledConnection.getStatementCache().prepare(sql);
+        bindValues(preparedStatement, 1, values);
+        return preparedStatement.executeQuery();
     }
 
     /**
@@ -178,25 +918,355 @@ public class Database {
      * @param sqlStatement the SQL statement to execute
      */
     public void executeStatement(String sqlStatement) {
+        withWriter("execute", pooledConnection -> {
+            long startTime = System.nanoTime();
+            try (Statement statement = pooledConnection.getConnection().createStatement()) {
+                int rows = statement.executeUpdate(sqlStatement);
+                logIfSlow(pooledConnection, sqlStatement, new Object[0], rows, startTime);
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Writes a statement to the slow-statement log with its query plan if it
+     * took at least the configured threshold. The query plan is only
+     * computed for the statements that are logged.
+     *
+     * @param pooledConnection the connection the statement was executed on
+     * @param sql the SQL of the statement
+     * @param values the values bound to the statement, in order
+     * @param rows the number of rows read or changed by the statement
+     * @param startTime the value of System.nanoTime() when the statement started
+     */
+    private void logIfSlow(PooledConnection pooledConnection, String sql, Object[] values,
+                           long rows, long startTime) {
+        long nanos = System.nanoTime() - startTime;
+        if (slowStatementLog.isSlow(nanos)) {
+            slowStatementLog.write(sql, Arrays.asList(values), rows, nanos,
+                    explainQueryPlan(pooledConnection.getConnection(), sql, values));
+        }
+    }
+
+    /**
+     * Returns how SQLite executes a statement, without executing it. Each
+     * step of the plan is indented below the step it belongs to (ex: "SCAN
+     * items" for a full-table scan). Only the first statement of a script is
+     * explained.
+     *
+     * @param connection the connection the statement is explained on
+     * @param sql the SQL of the statement
+     * @param values the values bound to the statement, in order
+     * @return the steps of the query plan, or why it could not be computed
+     */
+    static List<String> explainQueryPlan(Connection connection, String sql, Object... values) {
+        List<String> queryPlan = new ArrayList<>();
+        Map<Integer, Integer> depthsById = new HashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            bindValues(preparedStatement, 1, values);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    int depth = depthsById.getOrDefault(resultSet.getInt("parent"), 0);
+                    depthsById.put(resultSet.getInt("id"), depth + 1);
+                    queryPlan.add("  ".repeat(depth) + resultSet.getString("detail"));
+                }
+            }
+        } catch (SQLException e) {
+            queryPlan.add("unavailable: " + e.getMessage());
+        }
+        return queryPlan;
+    }
+
+    /**
+     * Returns the value SQLite is using for a setting of the connection that
+     * writes.
+     *
+     * @param pragmaName the name of the setting (ex: "journal_mode")
+     * @return the value of the setting
+     */
+    String getPragma(String pragmaName) {
+        return withWriter(pooledConnection -> {
+            try (Statement statement = pooledConnection.getConnection().createStatement();
+                 ResultSet resultSet = statement.executeQuery("PRAGMA " + pragmaName)) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        });
+    }
+
+    /**
+     * An operation executed with a connection from the pool.
+     *
+     * @param <T> the result of the operation
+     */
+    @FunctionalInterface
+    interface SQLOperation<T> {
+        T execute(PooledConnection pooledConnection) throws SQLException;
+    }
+
+    /**
+     * Executes a read with a read-only connection from the pool. If the
+     * current thread is in a transaction, the transaction's connection is
+     * used, so the read sees the transaction's changes. Without a
+     * write-ahead log, the read is executed on the writer thread with the
+     * writer's connection.
+     *
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    <T> T withConnection(SQLOperation<T> operation) {
+        PooledConnection currentConnection = transactionConnection.get();
+        if (currentConnection == null && !writer.isWriteAheadLog()) {
+            return writer.execute(() -> execute(operation, writer.getConnection()));
+        }
+        PooledConnection pooledConnection = currentConnection != null ?
+                currentConnection : connectionPool.acquire();
+        try {
+            return execute(operation, pooledConnection);
+        } finally {
+            if (currentConnection == null) {
+                connectionPool.release(pooledConnection);
+            }
+        }
+    }
+
+    /**
+     * Executes a write on the writer thread with the connection that writes
+     * and waits for it to finish. If the current thread is in a transaction,
+     * the write becomes part of it.
+     *
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    <T> T withWriter(SQLOperation<T> operation) {
+        if (transactionConnection.get() != null) {
+            return withConnection(operation);
+        }
+        return writer.execute(() -> execute(operation, writer.getConnection()));
+    }
+
+    /**
+     * Executes a write on the writer thread and records its latency,
+     * including the time it waited for earlier writes, and whether it failed
+     * in the Database's Metrics.
+     *
+     * @param operationName the name the operation is measured under
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    <T> T withWriter(String operationName, SQLOperation<T> operation) {
+        return measure(operationName, () -> withWriter(operation));
+    }
+
+    /**
+     * Executes an operation with a connection.
+     *
+     * @param operation the operation to execute
+     * @param pooledConnection the connection the operation uses
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    private static <T> T execute(SQLOperation<T> operation, PooledConnection pooledConnection) {
         try {
-            statement.executeUpdate(sqlStatement);
+            return operation.execute(pooledConnection);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Terminates the database's connection and statement.
+     * Executes an operation with a connection from the pool and records its
+     * latency and whether it failed in the Database's Metrics.
+     *
+     * @param operationName the name the operation is measured under
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
      */
-    public void shutdown() {
+    <T> T withConnection(String operationName, SQLOperation<T> operation) {
+        return measure(operationName, () -> withConnection(operation));
+    }
+
+    /**
+     * Executes an operation in a transaction and records its latency and
+     * whether it failed in the Database's Metrics.
+     *
+     * @param operationName the name the operation is measured under
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    <T> T inTransaction(String operationName, SQLOperation<T> operation) {
+        return measure(operationName, () -> inTransaction(operation));
+    }
+
+    /**
+     * Executes work and records its latency and whether it threw an
+     * exception as an SQL operation.
+     *
+     * @param operationName the name the work is measured under
+     * @param work the work to execute
+     * @param <T> the result of the work
+     * @return the result of the work
+     */
+    private <T> T measure(String operationName, Supplier<T> work) {
+        long startTime = System.nanoTime();
+        boolean failed = true;
         try {
-            if (connection != null) {
-                connection.close();
+            T result = work.get();
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(Metrics.Group.SQL, operationName, System.nanoTime() - startTime, failed);
+        }
+    }
+
+    /**
+     * Executes an operation in a transaction on the writer thread. Every
+     * Database method called by the operation joins the transaction. If the
+     * operation fails, the transaction is rolled back and the operation's
+     * exception is thrown, with any failure to roll back or to restore
+     * auto-commit added to it as suppressed. If the current thread is
+     * already in a transaction, the operation becomes part of it.
+     *
+     * @param operation the operation to execute
+     * @param <T> the result of the operation
+     * @return the result of the operation
+     */
+    <T> T inTransaction(SQLOperation<T> operation) {
+        if (transactionConnection.get() != null) {
+            return withConnection(operation);
+        }
+
+        return writer.execute(() -> {
+            PooledConnection pooledConnection = writer.getConnection();
+            Connection connection = pooledConnection.getConnection();
+            transactionConnection.set(pooledConnection);
+            RuntimeException failure = null;
+            try {
+                connection.setAutoCommit(false);
+                T result = operation.execute(pooledConnection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failure = e instanceof RuntimeException runtimeException ?
+                        runtimeException : new RuntimeException(e);
+                rollback(connection, failure);
+                throw failure;
+            } finally {
+                transactionConnection.remove();
+                restoreAutoCommit(connection, failure);
             }
-            statement.close();
+        });
+    }
+
+    /**
+     * Executes work in a single transaction. The work is executed on the
+     * writer thread, and every Database method it calls joins the
+     * transaction, so their changes are committed together. If the work
+     * throws an exception, every change it made is rolled back.
+     *
+     * @param work the work to execute
+     * @param <T> the result of the work
+     * @return the result of the work
+     */
+    public <T> T runInTransaction(Supplier<T> work) {
+        return inTransaction("transaction", pooledConnection -> work.get());
+    }
+
+    /**
+     * Returns whether the current thread is in a transaction, so that the
+     * Database methods it calls are committed together. Only work executed
+     * by runInTransaction is in a transaction.
+     *
+     * @return true if the current thread is in a transaction, false otherwise
+     */
+    public boolean isInTransaction() {
+        return transactionConnection.get() != null;
+    }
+
+    /**
+     * Rolls back the transaction of a connection after a failed operation.
+     * A failure to roll back is added to the operation's exception, so that
+     * the cause of the rollback is not lost.
+     *
+     * @param connection the connection in a transaction
+     * @param failure the exception of the failed operation
+     */
+    private static void rollback(Connection connection, RuntimeException failure) {
+        try {
+            connection.rollback();
         } catch (SQLException e) {
-            // connection close failed.
-            throw new RuntimeException(e);
+            failure.addSuppressed(e);
         }
     }
+
+    /**
+     * Returns a connection to auto-commit mode at the end of a transaction.
+     * If the transaction failed, a failure to restore auto-commit is added
+     * to its exception instead of replacing it.
+     *
+     * @param connection the connection of the transaction
+     * @param failure the exception of the failed operation, null if it succeeded
+     * @throws RuntimeException if auto-commit cannot be restored after the operation succeeded
+     */
+    private static void restoreAutoCommit(Connection connection, RuntimeException failure) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (failure == null) {
+                throw new RuntimeException(e);
+            }
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Returns a comma-separated list of '?' placeholders for a statement.
+     *
+     * @param numberOfValues the number of placeholders
+     * @return the placeholders as a String
+     */
+    private static String getPlaceholders(int numberOfValues) {
+        return String.join(", ", Collections.nCopies(numberOfValues, "?"));
+    }
+
+    /**
+     * Binds values to the parameters of a PreparedStatement.
+     *
+     * @param preparedStatement the statement whose parameters are bound
+     * @param firstIndex the index of the first parameter to bind
+     * @param values the values to bind, in order
+     * @return the index of the next unbound parameter
+     * @throws SQLException if a value cannot be bound
+     */
+    private static int bindValues(PreparedStatement preparedStatement, int firstIndex,
+                                  Object... values) throws SQLException {
+        int index = firstIndex;
+        for (Object value : values) {
+            preparedStatement.setObject(index++, value);
+        }
+        return index;
+    }
+
+    /**
+     * Converts an item id to the integer used by the id column.
+     *
+     * @param itemId the id of the item as a String
+     * @return the id of the item as a long
+     */
+    private static long parseId(String itemId) {
+        return Long.parseLong(itemId.trim());
+    }
+
+    /**
+     * Terminates the database's connections and statements.
+     */
+    public void shutdown() {
+        // the writer closes last, so that it checkpoints and removes the write-ahead log
+        connectionPool.close();
+        writer.close();
+    }
 }
@@ -0,0 +1,151 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * DatabaseConfig contains the location of the database file, the profile of
+ * SQLite settings its connections are opened with, the size of the
+ * connection pool and where slow statements are logged.
+ *
+ * @param path the path of the SQLite database file
+ * @param profile the SQLite settings of each connection
+ * @param poolSize the maximum number of connections open at the same time
+ * @param slowStatements where and when slow statements are logged
+ *
+ * @author Liam Tripp
+ */
+public record DatabaseConfig(String path, DatabaseProfile profile, int poolSize,
+                             SlowStatementConfig slowStatements) {
+
+    /** the system property with the path of the configuration file */
+    public final static String CONFIG_FILE_PROPERTY = "warehouse.config";
+    public final static String PATH_PROPERTY = "warehouse.database.path";
+    public final static String PROFILE_PROPERTY = "warehouse.database.profile";
+    public final static String POOL_SIZE_PROPERTY = "warehouse.database.poolSize";
+    public final static String SLOW_STATEMENT_PATH_PROPERTY = "warehouse.slowStatements.path";
+    public final static String SLOW_STATEMENT_THRESHOLD_PROPERTY = "warehouse.slowStatements.thresholdMillis";
+    public final static String SLOW_STATEMENT_MAX_FILE_BYTES_PROPERTY = "warehouse.slowStatements.maxFileBytes";
+    public final static String SLOW_STATEMENT_MAX_FILES_PROPERTY = "warehouse.slowStatements.maxFiles";
+    /** the configuration file read from the working directory if no other is provided */
+    private final static String DEFAULT_CONFIG_FILE = "warehouse.properties";
+    private final static String DEFAULT_PATH = "warehouse.db";
+    private final static DatabaseProfile DEFAULT_PROFILE = DatabaseProfile.BALANCED;
+
+    /**
+     * Constructor for DatabaseConfig. Slow statements are logged with the
+     * default settings next to the database file.
+     *
+     * @param path the path of the SQLite database file
+     * @param profile the SQLite settings of each connection
+     * @param poolSize the maximum number of connections open at the same time
+     */
+    public DatabaseConfig(String path, DatabaseProfile profile, int poolSize) {
+        this(path, profile, poolSize, SlowStatementConfig.getDefault(path));
+    }
+
+    /**
+     * Returns the default configuration.
+     *
+     * @return the configuration used if nothing is configured
+     */
+    public static DatabaseConfig getDefault() {
+        return new DatabaseConfig(DEFAULT_PATH, DEFAULT_PROFILE, Database.DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Loads the configuration. The configuration file named by the
+     * warehouse.config system property, or warehouse.properties in the
+     * working directory if it exists, is read first. System properties with
+     * the same names override the file.
+     *
+     * @return the loaded configuration
+     */
+    public static DatabaseConfig load() {
+        Properties properties = new Properties();
+        String configFile = System.getProperty(CONFIG_FILE_PROPERTY);
+        Path configPath = Path.of(configFile == null ? DEFAULT_CONFIG_FILE : configFile);
+        // only a file that was asked for must exist
+        if (configFile != null || Files.exists(configPath)) {
+            try (Reader reader = Files.newBufferedReader(configPath)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        properties.putAll(System.getProperties());
+        return fromProperties(properties);
+    }
+
+    /**
+     * Creates a configuration from properties. Missing properties are set to
+     * their defaults.
+     *
+     * @param properties the properties containing the configuration
+     * @return the configuration
+     * @throws IllegalArgumentException if a property is invalid
+     */
+    public static DatabaseConfig fromProperties(Properties properties) {
+        DatabaseConfig defaultConfig = getDefault();
+        String path = properties.getProperty(PATH_PROPERTY, defaultConfig.path());
+        String profile = properties.getProperty(PROFILE_PROPERTY);
+        String poolSize = properties.getProperty(POOL_SIZE_PROPERTY);
+        return new DatabaseConfig(path.trim(),
+                profile == null ? defaultConfig.profile() : DatabaseProfile.getProfile(profile),
+                poolSize == null ? defaultConfig.poolSize() : Integer.parseInt(poolSize.trim()),
+                getSlowStatementConfig(properties, path.trim()));
+    }
+
+    /**
+     * Creates the configuration of the slow-statement log from properties.
+     * Missing properties are set to their defaults.
+     *
+     * @param properties the properties containing the configuration
+     * @param databasePath the path of the SQLite database file
+     * @return the configuration of the slow-statement log
+     */
+    private static SlowStatementConfig getSlowStatementConfig(Properties properties, String databasePath) {
+        SlowStatementConfig defaultConfig = SlowStatementConfig.getDefault(databasePath);
+        String path = properties.getProperty(SLOW_STATEMENT_PATH_PROPERTY);
+        String threshold = properties.getProperty(SLOW_STATEMENT_THRESHOLD_PROPERTY);
+        String maxFileBytes = properties.getProperty(SLOW_STATEMENT_MAX_FILE_BYTES_PROPERTY);
+        String maxFiles = properties.getProperty(SLOW_STATEMENT_MAX_FILES_PROPERTY);
+        return new SlowStatementConfig(path == null ? defaultConfig.path() : path.trim(),
+                threshold == null ? defaultConfig.thresholdMillis() : Long.parseLong(threshold.trim()),
+                maxFileBytes == null ? defaultConfig.maxFileBytes() : Long.parseLong(maxFileBytes.trim()),
+                maxFiles == null ? defaultConfig.maxFiles() : Integer.parseInt(maxFiles.trim()));
+    }
+
+    /**
+     * Returns a copy of the configuration with another pool size.
+     *
+     * @param poolSize the maximum number of connections open at the same time
+     * @return the configuration with the pool size
+     */
+    public DatabaseConfig withPoolSize(int poolSize) {
+        return new DatabaseConfig(path, profile, poolSize, slowStatements);
+    }
+
+    /**
+     * Returns a copy of the configuration with another slow-statement log
+     * configuration.
+     *
+     * @param slowStatements where and when slow statements are logged
+     * @return the configuration with the slow-statement log configuration
+     */
+    public DatabaseConfig withSlowStatements(SlowStatementConfig slowStatements) {
+        return new DatabaseConfig(path, profile, poolSize, slowStatements);
+    }
+
+    /**
+     * Returns the JDBC url of the database file.
+     *
+     * @return the url used to open connections
+     */
+    public String getUrl() {
+        return "jdbc:sqlite:" + path;
+    }
+}
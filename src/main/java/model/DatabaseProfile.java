@@ -0,0 +1,99 @@
+package model;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+
+import java.util.List;
+
+/**
+ * DatabaseProfile contains the named sets of SQLite settings that each
+ * connection is opened with. They trade durability for speed:
+ * durable keeps SQLite's defaults and syncs every commit to disk, balanced
+ * uses write-ahead logging and memory-mapped reads, and bulk-load does not
+ * wait for the disk at all, which is only safe if the file can be rebuilt.
+ *
+ * @author Liam Tripp
+ */
+public enum DatabaseProfile {
+    DURABLE(JournalMode.DELETE, SynchronousMode.FULL, 0, -2_000, TempStore.DEFAULT, 5_000),
+    BALANCED(JournalMode.WAL, SynchronousMode.NORMAL, 256L << 20, -64_000, TempStore.MEMORY, 5_000),
+    BULK_LOAD(JournalMode.MEMORY, SynchronousMode.OFF, 1L << 30, -256_000, TempStore.MEMORY, 30_000);
+
+    /** the pragmas set by every profile, in the order they are logged */
+    public final static List<String> PRAGMA_NAMES = List.of(
+            "journal_mode", "synchronous", "mmap_size", "cache_size", "temp_store", "busy_timeout");
+
+    private final JournalMode journalMode;
+    private final SynchronousMode synchronousMode;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final TempStore tempStore;
+    private final int busyTimeoutMillis;
+
+    /**
+     * Constructor for DatabaseProfile.
+     *
+     * @param journalMode how SQLite journals transactions so that they can be rolled back
+     * @param synchronousMode how often SQLite waits for writes to reach the disk
+     * @param mmapSize the number of bytes of the file read through memory mapping
+     * @param cacheSize the size of the page cache, in pages if positive or in KiB if negative
+     * @param tempStore where temporary tables and indexes are kept
+     * @param busyTimeoutMillis how long SQLite waits for a lock held by another connection
+     */
+    DatabaseProfile(JournalMode journalMode, SynchronousMode synchronousMode, long mmapSize,
+                    int cacheSize, TempStore tempStore, int busyTimeoutMillis) {
+        this.journalMode = journalMode;
+        this.synchronousMode = synchronousMode;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * Returns the name of the profile as it is written in configuration.
+     *
+     * @return the name of the profile (ex: "bulk-load")
+     */
+    public String getName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    /**
+     * Adds the settings of the profile to the configuration that a
+     * connection is opened with. The journal mode is only set on the
+     * connection that writes, since readers cannot change it.
+     *
+     * @param config the configuration of the connection
+     * @param readOnly true if the connection can only read, false otherwise
+     */
+    void configure(SQLiteConfig config, boolean readOnly) {
+        if (!readOnly) {
+            config.setJournalMode(journalMode);
+        }
+        config.setSynchronous(synchronousMode);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        config.setCacheSize(cacheSize);
+        config.setTempStore(tempStore);
+        config.setBusyTimeout(busyTimeoutMillis);
+    }
+
+    /**
+     * Returns the profile with the provided name.
+     *
+     * @param name the name of the profile, case-insensitive
+     * @return the profile with the name
+     * @throws IllegalArgumentException if there is no profile with the name
+     */
+    public static DatabaseProfile getProfile(String name) {
+        for (DatabaseProfile profile : values()) {
+            if (profile.getName().equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database profile " + name + ". The profiles are " +
+                String.join(", ", DURABLE.getName(), BALANCED.getName(), BULK_LOAD.getName()) + ".");
+    }
+}
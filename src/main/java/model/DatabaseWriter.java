@@ -0,0 +1,168 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DatabaseWriter executes every write to the database on its own thread with
+ * the only connection that can write. SQLite allows one writer at a time, so
+ * writers from several connections would only wait for each other's locks.
+ * Writes are queued and executed in the order they were submitted, while
+ * reads use the read-only connections of the ConnectionPool without waiting
+ * for them.
+ *
+ * @author Liam Tripp
+ */
+class DatabaseWriter {
+
+    /** how long closing waits for the queued writes to finish */
+    private final static long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final DatabaseConfig config;
+    private final ExecutorService executor;
+    /** the thread that executes the writes */
+    private volatile Thread writerThread;
+    /** opened by the first write or reader, null until then */
+    private PooledConnection pooledConnection;
+    /** whether the connection uses a write-ahead log, null until it is read back from SQLite */
+    private volatile Boolean writeAheadLog;
+    private boolean closed;
+
+    /**
+     * Constructor for DatabaseWriter.
+     *
+     * @param config the database file and the settings of the connection
+     */
+    DatabaseWriter(DatabaseConfig config) {
+        this.config = config;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+        closed = false;
+    }
+
+    /**
+     * Returns the connection that writes to the database, opening it if it
+     * has not been opened. Opening it creates the database file and sets its
+     * journal mode. It must only be used by the writer thread once it is
+     * opened.
+     *
+     * @return the connection of the writer
+     */
+    synchronized PooledConnection getConnection() {
+        if (closed) {
+            throw new IllegalStateException("The database writer has been shut down.");
+        }
+        if (pooledConnection == null) {
+            pooledConnection = ConnectionPool.openConnection(config, false);
+            try {
+                try (Statement statement = pooledConnection.getConnection().createStatement();
+                     ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")) {
+                    writeAheadLog = resultSet.next() && resultSet.getString(1).equalsIgnoreCase("wal");
+                }
+                ConnectionPool.logSettings(config, pooledConnection.getConnection());
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return pooledConnection;
+    }
+
+    /**
+     * Returns whether the database uses a write-ahead log, opening the
+     * connection if it has not been opened. Without one, a reader holds a
+     * lock that makes the writer's commits wait, and an in-memory database
+     * is not shared between connections, so reads must use the writer's
+     * connection instead.
+     *
+     * @return true if the journal mode is WAL, false otherwise
+     */
+    boolean isWriteAheadLog() {
+        if (writeAheadLog == null) {
+            getConnection();
+        }
+        return writeAheadLog;
+    }
+
+    /**
+     * Returns whether the current thread is the writer thread.
+     *
+     * @return true if the current thread executes the writes, false otherwise
+     */
+    boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    /**
+     * Executes a write on the writer thread and waits for its result. A
+     * write made by the writer thread itself is executed immediately.
+     *
+     * @param write the write to execute
+     * @param <T> the result of the write
+     * @return the result of the write
+     * @throws IllegalStateException if the writer has been shut down
+     */
+    <T> T execute(Supplier<T> write) {
+        if (isWriterThread()) {
+            return write.get();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(write::get);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("The database writer has been shut down.", e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // rethrow what the write threw, as if it had run on the caller's thread
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Waits for the queued writes to finish and closes the connection.
+     */
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closed = true;
+            if (pooledConnection == null) {
+                return;
+            }
+            try {
+                pooledConnection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                pooledConnection = null;
+            }
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package model;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.json.simple.JSONObject;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Objects;
@@ -14,6 +14,9 @@ import java.util.Objects;
  */
 public class DeletedItem extends Item {
 
+    /** the index of the comment column, resolved once from the schema registry */
+    private final static int COMMENT_INDEX = Table.DELETED_ITEMS.getColumnIndex("comment");
+
     /** the deletion comment for the item (optional) */
     private final String comment;
 
@@ -23,7 +26,7 @@ public class DeletedItem extends Item {
      * @param item the item being deleted
      */
     public DeletedItem(Item item) {
-        super(item.getId(), item.getName(), item.getPrice().toString(),
+        super(item.getId(), item.getName(), item.getPriceInCents(),
                 item.getStock());
         comment = "";
     }
@@ -35,19 +38,21 @@ public class DeletedItem extends Item {
      * @param comment the deletion comment for the item
      */
     public DeletedItem(Item item, String comment) {
-        super(item.getId(), item.getName(), item.getPrice().toString(),
+        super(item.getId(), item.getName(), item.getPriceInCents(),
                 item.getStock());
         this.comment = comment;
     }
 
+    /**
+     * Constructs a DeletedItem from a ResultSet containing the columns of the
+     * DELETED_ITEMS table in order.
+     *
+     * @param resultSet the ResultSet from an JDBC SQL query
+     */
     public DeletedItem(ResultSet resultSet) {
         super(resultSet);
-        int numberOfItemAttributes = Item.class.getDeclaredFields().length;
-        int numberOfDeletedItemAttributes = DeletedItem.class.getDeclaredFields().length;
-        int totalNumberOfAttributes = numberOfItemAttributes + numberOfDeletedItemAttributes;
-
         try {
-            String comment = resultSet.getString(totalNumberOfAttributes);
+            String comment = resultSet.getString(COMMENT_INDEX);
             // prevent DeletedItem from initializing null value
             this.comment = Objects.requireNonNullElse(comment, "");
         } catch (SQLException e) {
@@ -55,21 +60,6 @@ public class DeletedItem extends Item {
         }
     }
 
-    /**
-     * Returns the DeletedItem's properties in SQL format. Identical to
-     * Item.getValuesInSQLFormat except it includes the field for comments.
-     *
-     * @return the DeletedItem's values a format made suitable for SQL
-     */
-    public String getDeletedItemValuesInSQLFormat() {
-        String deletedItemValues = super.getValuesInSQLFormat();
-        if (comment != null && !comment.isBlank()) {
-            deletedItemValues = String.join(", ",
-                    deletedItemValues, getCommentInQuotes());
-        }
-        return deletedItemValues;
-    }
-
     /**
      * Returns the item's deletion comment.
      *
@@ -89,14 +79,7 @@ public class DeletedItem extends Item {
      * @return the attributes of DeletedItem as a String array
      */
     public static String[] getAttributeNamesAsArray() {
-        Field[] attributes = DeletedItem.class.getDeclaredFields();
-        String[] attributeNames = new String[attributes.length];
-
-        for (int i = 0; i < attributes.length; i++) {
-            attributeNames[i] = attributes[i].getName();
-        }
-        String[] itemAttributeNames = Item.getAttributeNamesAsArray();
-        return ArrayUtils.addAll(itemAttributeNames, attributeNames);
+        return Table.DELETED_ITEMS.getColumnNames().toArray(new String[0]);
     }
 
     /**
@@ -113,6 +96,22 @@ public class DeletedItem extends Item {
         }
     }
 
+    /**
+     * Returns the DeletedItem as a JSONObject. Identical to
+     * Item.toJSONObject except it includes the comment if there is one.
+     *
+     * @return the DeletedItem as a JSONObject
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        JSONObject jsonItem = super.toJSONObject();
+        if (!comment.isBlank()) {
+            jsonItem.put("comment", comment);
+        }
+        return jsonItem;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object == this) {
@@ -125,7 +124,7 @@ public class DeletedItem extends Item {
 
         return getId() == item.getId() &&
                 getName().equals(item.getName()) &&
-                getPrice().compareTo(item.getPrice()) == 0 &&
+                getPriceInCents() == item.getPriceInCents() &&
                 getStock() == item.getStock() &&
                 getComment().equals(item.getComment());
     }
@@ -5,10 +5,13 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -73,6 +76,39 @@ public class InputFileReader {
         return items;
     }
 
+    /**
+     * Returns an iterator that streams the items from the items.json file
+     * one at a time instead of parsing the whole file at once. The iterator
+     * should be closed once it is no longer needed.
+     *
+     * @return an iterator over the items in the items.json file
+     */
+    public JSONItemIterator getItemIteratorFromJSONFile() {
+        if (!fileEnding.equals(JSON)) {
+            throw new IllegalArgumentException("File type must be .json");
+        }
+        InputStream inputStream = createInputStream();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return new JSONItemIterator(reader, fileName);
+    }
+
+    /**
+     * Returns an iterator that streams the items of a JSON file outside of
+     * the project's resources, such as a catalog export. The file must have
+     * the same layout as items.json.
+     *
+     * @param jsonFile the path to the JSON file
+     * @return an iterator over the items in the file
+     */
+    public static JSONItemIterator getItemIteratorFromJSONFile(Path jsonFile) {
+        try {
+            BufferedReader reader = Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8);
+            return new JSONItemIterator(reader, Table.ITEMS.getName());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Returns a JSONArray for a JSON file with the specified name.
      *
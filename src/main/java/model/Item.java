@@ -2,12 +2,8 @@ package model;
 
 import org.json.simple.JSONObject;
 
-import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Arrays;
-import java.util.regex.Matcher;
 
 /**
  * Item is a data class simulating an item in a Store.
@@ -16,9 +12,16 @@ import java.util.regex.Matcher;
  */
 public class Item {
 
+    /** the indexes of the Item's columns, resolved once from the schema registry */
+    private final static int ID_INDEX = Table.ITEMS.getColumnIndex("id");
+    private final static int NAME_INDEX = Table.ITEMS.getColumnIndex("name");
+    private final static int PRICE_INDEX = Table.ITEMS.getColumnIndex("price");
+    private final static int STOCK_INDEX = Table.ITEMS.getColumnIndex("stock");
+
     private final int id;
     private String name;
-    private BigDecimal price;
+    /** the price of the item in cents */
+    private long price;
     private int stock;
 
     /**
@@ -30,9 +33,21 @@ public class Item {
      * @param stock the amount of an item in stock
      */
     public Item(int id, String name, String price, int stock) {
+        this(id, name, Money.parseCents(price), stock);
+    }
+
+    /**
+     * Constructor for Item.
+     *
+     * @param id the id of the item
+     * @param name the name of the Item
+     * @param priceInCents the price of the item in cents
+     * @param stock the amount of an item in stock
+     */
+    public Item(int id, String name, long priceInCents, int stock) {
         this.id = id;
         this.name = name;
-        this.price = new BigDecimal(price);
+        this.price = priceInCents;
         this.stock = stock;
     }
 
@@ -49,38 +64,23 @@ public class Item {
     }
 
     /**
-     * Constructs an Item from a ResultSet.
+     * Constructs an Item from a ResultSet. The columns are read by their
+     * index in the schema registry, so the row must be selected with the
+     * table's columns in order.
      *
      * @param resultSet the ResultSet from an JDBC SQL query
      */
     public Item(ResultSet resultSet) {
-        final Field[] attributes = Item.class.getDeclaredFields();
-
         try {
-            id = resultSet.getInt(attributes[0].getName());
-            name = resultSet.getString(attributes[1].getName());
-            int price = resultSet.getInt((attributes[2].getName()));
-            this.price = new BigDecimal(price / 100 + "." + price % 100);
-            stock = resultSet.getInt(attributes[3].getName());
+            id = resultSet.getInt(ID_INDEX);
+            name = resultSet.getString(NAME_INDEX);
+            price = resultSet.getLong(PRICE_INDEX);
+            stock = resultSet.getInt(STOCK_INDEX);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    /**
-     * Constructs an Item from a Matcher. Used when adding a new item to a
-     * table.
-     *
-     * @param matcher contains the new Item's name, price, and stock
-     */
-    public Item(Matcher matcher) {
-        // matcher.group(1) is the CREATE command
-        this(-1, // not used
-                matcher.group(2),
-                matcher.group(3),
-                Integer.parseInt((matcher.group(4))));
-    }
-
     public int getId() {
         return id;
     }
@@ -97,24 +97,27 @@ public class Item {
         this.name = name;
     }
 
-    public BigDecimal getPrice() {
+    /**
+     * Returns the price in cents, the form in which it is stored as an
+     * integer in an SQL table.
+     *
+     * @return the price in cents
+     */
+    public long getPriceInCents() {
         return price;
     }
 
     /**
-     * Returns price multiplied by 100 to allow it to be stored as an integer
-     * in an SQL table.
+     * Returns the price in the format dollars.cents.
      *
-     * @return bigDecimal price multiplied by 100
+     * @return the price as text
      */
-    public BigDecimal getPriceTimes100() {
-        return price.scaleByPowerOfTen(2);
+    public String getPriceAsString() {
+        return Money.format(price);
     }
 
     public void setPrice(String priceAsDecimalString) {
-        double priceAsDouble = Double.parseDouble(priceAsDecimalString);
-        String priceAsDecimal = String.format("%.2f", priceAsDouble);
-        this.price = new BigDecimal(priceAsDecimal);
+        this.price = Money.parseCents(priceAsDecimalString);
     }
 
     public int getStock() {
@@ -131,13 +134,7 @@ public class Item {
      * @return the attributes of Item as a String array
      */
     public static String[] getAttributeNamesAsArray() {
-        Field[] attributes = Item.class.getDeclaredFields();
-        String[] attributeNames = new String[attributes.length];
-
-        for (int i = 0; i < attributes.length; i++) {
-            attributeNames[i] = attributes[i].getName();
-        }
-        return attributeNames;
+        return Table.ITEMS.getColumnNames().toArray(new String[0]);
     }
 
     /**
@@ -149,46 +146,49 @@ public class Item {
         return new String[]{
                 String.valueOf(id),
                 name,
-                price.toString(),
+                Money.format(price),
                 String.valueOf(stock)
         };
     }
 
     /**
-     * Returns the values of all attributes as an SQL-formatted String.
+     * Returns the Item as a JSONObject in the format of the items.json file,
+     * with its id. The price is a String in the format dollars.cents.
      *
-     * @return the SQL-formatted, comma-separated Item values
+     * @return the Item as a JSONObject
      */
-    public final String getValuesInSQLFormat() {
-        return String.join(", ",
-                String.valueOf(id),
-                getValuesInSQLFormatExceptId());
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        JSONObject jsonItem = new JSONObject();
+        jsonItem.put("id", id);
+        jsonItem.put("name", name);
+        jsonItem.put("price", Money.format(price));
+        jsonItem.put("stock", stock);
+        return jsonItem;
     }
 
     /**
-     * Returns the values of all attributes except id as an SQL-formatted String.
+     * Returns the values of all attributes in the order of the table's
+     * columns, ready to be bound as parameters of an SQL statement.
      *
-     * @return the SQL-formatted, comma-separated Item values except id
+     * @return the Item values with price in cents
      */
-    public String getValuesInSQLFormatExceptId() {
-        return String.join(", ",
-                getNameInQuotes(),
-                getPriceTimes100().toString(),
-                String.valueOf(stock));
+    public final Object[] getValues() {
+        return new Object[]{id, name, price, stock};
     }
 
-    public static String getAttributeNamesExceptId() {
-        String[] attributeNames = getAttributeNamesAsArray();
-        String[] attributeNamesExceptId = Arrays.copyOfRange(attributeNames, 1, attributeNames.length);
-        return String.join(", ", attributeNamesExceptId);
+    /**
+     * Returns the values of all attributes except id, ready to be bound as
+     * parameters of an SQL statement.
+     *
+     * @return the Item values except id with price in cents
+     */
+    public Object[] getValuesExceptId() {
+        return new Object[]{name, price, stock};
     }
 
-    // used for updating SQL table with multiple values
-    public String getAttributeNameValueListExceptId() {
-        return String.join(", ",
-                "name = " + getNameInQuotes(),
-                "price = " + getPriceTimes100().intValue(),
-                ("stock = " + stock));
+    public static String getAttributeNamesExceptId() {
+        return Table.ITEMS.getColumnListExceptId();
     }
 
     @Override
@@ -203,7 +203,7 @@ public class Item {
 
         return id == item.getId() &&
                 name.equals(item.getName()) &&
-                price.compareTo(item.getPrice()) == 0 &&
+                price == item.getPriceInCents() &&
                 stock == item.getStock();
     }
 
@@ -212,7 +212,7 @@ public class Item {
         return String.join(", ",
                 String.valueOf(id),
                 getNameInQuotes(),
-                price.toString(),
+                Money.format(price),
                 String.valueOf(stock));
     }
 }
@@ -0,0 +1,62 @@
+package model;
+
+/**
+ * ItemFilter contains the conditions that items can be found by. Each
+ * condition compares one indexed column of the items table to bound values,
+ * so SQLite finds the rows with a range scan of the column's index instead
+ * of reading the whole table. Matching rows are ordered by that column.
+ *
+ * @author Liam Tripp
+ */
+public enum ItemFilter {
+    NAME("name", "name = ?", 1),
+    // every name starting with the prefix sorts before the prefix followed by the largest code point
+    NAME_PREFIX("name", "name >= ?1 AND name < ?1 || char(1114111)", 1),
+    PRICE_RANGE("price", "price BETWEEN ? AND ?", 2),
+    STOCK_BELOW("stock", "stock < ?", 1),
+    STOCK_ABOVE("stock", "stock > ?", 1);
+
+    private final String column;
+    private final String condition;
+    private final int valueCount;
+
+    /**
+     * Constructor for ItemFilter.
+     *
+     * @param column the indexed column that is compared
+     * @param condition the WHERE clause with a parameter for each value
+     * @param valueCount the number of values the condition is compared to
+     */
+    ItemFilter(String column, String condition, int valueCount) {
+        this.column = column;
+        this.condition = condition;
+        this.valueCount = valueCount;
+    }
+
+    /**
+     * Returns the indexed column that is compared by the filter.
+     *
+     * @return the name of the column
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the WHERE clause of the filter.
+     *
+     * @return the condition with a parameter for each value
+     */
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * Returns the number of values the filter compares its column to.
+     *
+     * @return the number of values (ex: 2 for the bounds of a price range)
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+}
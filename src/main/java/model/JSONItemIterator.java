@@ -0,0 +1,185 @@
+package model;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * JSONItemIterator tokenizes a JSON file incrementally and returns the Items
+ * of one of its arrays one at a time. Only the Item being read is held in
+ * memory, so the size of the file does not affect the heap.
+ *
+ * @author Liam Tripp
+ */
+public class JSONItemIterator implements Iterator<Item>, AutoCloseable {
+
+    private final Reader reader;
+    private final JSONParser parser;
+    private final ItemHandler itemHandler;
+    private boolean parsingStarted;
+    private Item nextItem;
+
+    /**
+     * Constructor for JSONItemIterator.
+     *
+     * @param reader the reader for the JSON file
+     * @param arrayName the name of the array containing the items
+     */
+    public JSONItemIterator(Reader reader, String arrayName) {
+        this.reader = reader;
+        parser = new JSONParser();
+        itemHandler = new ItemHandler(arrayName);
+        parsingStarted = false;
+        nextItem = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextItem == null && !itemHandler.isFinished()) {
+            nextItem = readNextItem();
+        }
+        return nextItem != null;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = nextItem;
+        nextItem = null;
+        return item;
+    }
+
+    /**
+     * Resumes the parser until the next item has been read or the file ends.
+     *
+     * @return the next item in the file, null if there are none left
+     */
+    private Item readNextItem() {
+        try {
+            parser.parse(reader, itemHandler, parsingStarted);
+            parsingStarted = true;
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException(e);
+        }
+        return itemHandler.takeItem();
+    }
+
+    /**
+     * Closes the reader for the JSON file.
+     */
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * ItemHandler receives the tokens of the JSON file and pauses the parser
+     * each time an item in the array has been read.
+     */
+    private static class ItemHandler implements ContentHandler {
+
+        private final String arrayName;
+        private int depth;
+        private int itemDepth;
+        private String key;
+        private JSONObject jsonItem;
+        private Item item;
+        private boolean finished;
+
+        ItemHandler(String arrayName) {
+            this.arrayName = arrayName;
+            itemDepth = -1;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        Item takeItem() {
+            Item readItem = item;
+            item = null;
+            return readItem;
+        }
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+            finished = true;
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (depth == itemDepth) {
+                jsonItem = new JSONObject();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            boolean endOfItem = depth == itemDepth;
+            depth--;
+            if (endOfItem) {
+                item = new Item(jsonItem);
+                jsonItem = null;
+                return false; // pause until the next item is requested
+            }
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            this.key = key;
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            if (itemDepth == -1 && arrayName.equals(key)) {
+                itemDepth = depth + 1;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            if (depth + 1 == itemDepth) {
+                finished = true;
+                return false; // the remainder of the file is not needed
+            }
+            depth--;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean primitive(Object value) {
+            if (jsonItem != null && depth == itemDepth) {
+                jsonItem.put(key, value);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram counts durations in buckets whose width grows with the
+ * duration, so any duration from a nanosecond to centuries is counted with
+ * at most 1/16 (6.25%) relative error in a fixed amount of memory.
+ * Recording is lock-free, so many threads can record at the same time
+ * without waiting for each other. Quantiles are computed from the counts
+ * when they are requested.
+ *
+ * @author Liam Tripp
+ */
+public class LatencyHistogram {
+
+    /** each power of two is split into 2^SUB_BUCKET_BITS buckets */
+    private final static int SUB_BUCKET_BITS = 4;
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** enough buckets for every non-negative long */
+    private final static int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+
+    /**
+     * Constructor for LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+        totalNanos = new LongAdder();
+        maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds, negative durations are recorded as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        counts.incrementAndGet(getBucketIndex(duration));
+        totalNanos.add(duration);
+        maxNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * Returns the index of the bucket a duration is counted in. Durations
+     * below SUB_BUCKET_COUNT have a bucket each. Above that, each power of
+     * two has SUB_BUCKET_COUNT buckets.
+     *
+     * @param nanos the non-negative duration
+     * @return the index of the bucket
+     */
+    static int getBucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest duration counted in a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the upper bound of the bucket in nanoseconds
+     */
+    static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        // the last bucket ends at Long.MAX_VALUE, so the bound is computed without overflowing
+        return (subBucket << shift) + ((1L << shift) - 1);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the duration that the provided fraction of the recorded
+     * durations do not exceed. The result is the upper bound of the bucket
+     * the quantile falls in, but never more than the maximum.
+     *
+     * @param quantile the fraction of durations, from 0 to 1 (ex: 0.99 for the 99th percentile)
+     * @return the duration in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max((long) Math.ceil(quantile * count), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics counts the executions and errors of operations and records their
+ * latency in a LatencyHistogram for each operation. Recording is lock-free,
+ * so it can be done from every thread that uses the Database. Gauges report
+ * a current value, such as the length of a queue, when they are read. The
+ * metrics can be read as OperationStatistics or written in the Prometheus
+ * text format.
+ *
+ * @author Liam Tripp
+ */
+public class Metrics {
+
+    /** the quantiles written in the Prometheus text format */
+    private final static double[] QUANTILES = {0.5, 0.99, 0.999};
+    private final static double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * Group contains the kinds of operations that are measured.
+     */
+    public enum Group {
+        COMMAND("warehouse_command", "command", "command"),
+        SQL("warehouse_sql", "operation", "SQL operation");
+
+        private final String metricName;
+        private final String labelName;
+        private final String description;
+
+        /**
+         * Constructor for Group.
+         *
+         * @param metricName the prefix of the group's metrics in Prometheus
+         * @param labelName the label with the name of the operation in Prometheus
+         * @param description the kind of operation in the metrics' help text
+         */
+        Group(String metricName, String labelName, String description) {
+            this.metricName = metricName;
+            this.labelName = labelName;
+            this.description = description;
+        }
+    }
+
+    private final Map<Group, ConcurrentHashMap<String, OperationMetrics>> operationsByGroup;
+    /** the gauges by name, ordered by name */
+    private final Map<String, Gauge> gauges;
+
+    /**
+     * Constructor for Metrics.
+     */
+    public Metrics() {
+        operationsByGroup = new EnumMap<>(Group.class);
+        for (Group group : Group.values()) {
+            operationsByGroup.put(group, new ConcurrentHashMap<>());
+        }
+        gauges = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Records one execution of an operation.
+     *
+     * @param group the kind of operation
+     * @param name the name of the operation (ex: "insert")
+     * @param nanos how long the execution took in nanoseconds
+     * @param failed true if the execution failed, false otherwise
+     */
+    public void record(Group group, String name, long nanos, boolean failed) {
+        OperationMetrics operationMetrics = operationsByGroup.get(group)
+                .computeIfAbsent(name, operationName -> new OperationMetrics());
+        operationMetrics.latency.record(nanos);
+        if (failed) {
+            operationMetrics.errors.increment();
+        }
+    }
+
+    /**
+     * Adds a gauge, whose value is read each time the metrics are read. A
+     * gauge with the same name is replaced.
+     *
+     * @param name the name of the gauge in Prometheus (ex: "warehouse_write_behind_queue_depth")
+     * @param description the help text of the gauge
+     * @param value reads the current value of the gauge
+     */
+    public void registerGauge(String name, String description, LongSupplier value) {
+        gauges.put(name, new Gauge(description, value));
+    }
+
+    /**
+     * Returns the current value of every gauge, ordered by name.
+     *
+     * @return the names of the gauges mapped to their values
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.value.getAsLong()));
+        return values;
+    }
+
+    /**
+     * Returns the statistics of every operation of a group that has been
+     * executed, ordered by name.
+     *
+     * @param group the kind of operation
+     * @return the statistics of each operation
+     */
+    public List<OperationStatistics> getStatistics(Group group) {
+        List<OperationStatistics> statistics = new ArrayList<>();
+        operationsByGroup.get(group).forEach((name, operationMetrics) -> {
+            LatencyHistogram latency = operationMetrics.latency;
+            statistics.add(new OperationStatistics(name, latency.getCount(), operationMetrics.errors.sum(),
+                    latency.getValueAtQuantile(0.5), latency.getValueAtQuantile(0.99),
+                    latency.getValueAtQuantile(0.999), latency.getMaxNanos(), latency.getTotalNanos()));
+        });
+        statistics.sort((first, second) -> first.name().compareTo(second.name()));
+        return statistics;
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format. The latency of each
+     * group is a summary in seconds with the 50th, 99th and 99.9th percentiles.
+     * Gauges are written after the groups.
+     *
+     * @param writer the writer the metrics are written to
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        for (Group group : Group.values()) {
+            List<OperationStatistics> statistics = getStatistics(group);
+            String durationName = group.metricName + "_duration_seconds";
+            String errorsName = group.metricName + "_errors_total";
+
+            writer.write("# HELP " + durationName + " The latency of each " + group.description + ".\n");
+            writer.write("# TYPE " + durationName + " summary\n");
+            for (OperationStatistics operation : statistics) {
+                String label = group.labelName + "=\"" + escapeLabelValue(operation.name()) + "\"";
+                long[] quantileNanos = {operation.medianNanos(), operation.p99Nanos(), operation.p999Nanos()};
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    writer.write(durationName + "{" + label + ",quantile=\"" + QUANTILES[i] + "\"} " +
+                            quantileNanos[i] / NANOS_PER_SECOND + "\n");
+                }
+                writer.write(durationName + "_sum{" + label + "} " + operation.totalNanos() / NANOS_PER_SECOND + "\n");
+                writer.write(durationName + "_count{" + label + "} " + operation.count() + "\n");
+            }
+
+            writer.write("# HELP " + errorsName + " The number of times each " + group.description + " failed.\n");
+            writer.write("# TYPE " + errorsName + " counter\n");
+            for (OperationStatistics operation : statistics) {
+                writer.write(errorsName + "{" + group.labelName + "=\"" + escapeLabelValue(operation.name()) +
+                        "\"} " + operation.errors() + "\n");
+            }
+        }
+        for (Map.Entry<String, Gauge> gauge : gauges.entrySet()) {
+            writer.write("# HELP " + gauge.getKey() + " " + gauge.getValue().description + "\n");
+            writer.write("# TYPE " + gauge.getKey() + " gauge\n");
+            writer.write(gauge.getKey() + " " + gauge.getValue().value.getAsLong() + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Escapes the characters of a label value that Prometheus requires to be
+     * escaped.
+     *
+     * @param value the label value
+     * @return the value with backslashes, quotes and newlines escaped
+     */
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * OperationMetrics contains the latency and error count of one operation.
+     */
+    private static class OperationMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Gauge contains the help text of a gauge and how its value is read.
+     *
+     * @param description the help text of the gauge
+     * @param value reads the current value of the gauge
+     */
+    private record Gauge(String description, LongSupplier value) {
+    }
+}
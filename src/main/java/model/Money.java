@@ -0,0 +1,106 @@
+package model;
+
+/**
+ * Money converts prices between their text form (dollars.cents) and the
+ * number of cents used by Item and stored in the SQLite tables. Keeping
+ * prices as a primitive long avoids creating objects on every row read.
+ *
+ * @author Liam Tripp
+ */
+public final class Money {
+
+    private final static int CENTS_PER_DOLLAR = 100;
+
+    /**
+     * Money only has static methods.
+     */
+    private Money() {
+    }
+
+    /**
+     * Parses a non-negative price in the format dollars.cents into cents
+     * without allocating. Either side of the decimal point may be omitted
+     * (ex: "5", "5.", ".5"). Digits after the cents are rounded half-up.
+     *
+     * @param price the price as text
+     * @return the price in cents
+     * @throws NumberFormatException if the text is not a valid price
+     */
+    public static long parseCents(CharSequence price) {
+        int length = price.length();
+        long dollars = 0;
+        long cents = 0;
+        int centsDigits = 0;
+        boolean hasDigit = false;
+        boolean afterPoint = false;
+        boolean roundUp = false;
+
+        for (int i = 0; i < length; i++) {
+            char character = price.charAt(i);
+            if (character == '.' && !afterPoint) {
+                afterPoint = true;
+                continue;
+            }
+            if (character < '0' || character > '9') {
+                throw new NumberFormatException("Invalid price: " + price);
+            }
+            int digit = character - '0';
+            hasDigit = true;
+            if (!afterPoint) {
+                if (dollars > (Long.MAX_VALUE / CENTS_PER_DOLLAR - 1 - digit) / 10) {
+                    throw new NumberFormatException("Price is too large: " + price);
+                }
+                dollars = dollars * 10 + digit;
+            } else if (centsDigits < 2) {
+                cents = cents * 10 + digit;
+                centsDigits++;
+            } else if (centsDigits == 2) {
+                roundUp = digit >= 5;
+                centsDigits++;
+            }
+        }
+        if (!hasDigit) {
+            throw new NumberFormatException("Invalid price: " + price);
+        }
+
+        // "5.5" is 50 cents, not 5
+        for (; centsDigits < 2; centsDigits++) {
+            cents *= 10;
+        }
+        return dollars * CENTS_PER_DOLLAR + cents + (roundUp ? 1 : 0);
+    }
+
+    /**
+     * Formats an amount of cents as dollars.cents with two decimal places.
+     *
+     * @param cents the amount in cents
+     * @return the amount as text (ex: 5 cents is "0.05")
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    /**
+     * Appends an amount of cents as dollars.cents with two decimal places.
+     *
+     * @param stringBuilder the StringBuilder being appended to
+     * @param cents the amount in cents
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendTo(StringBuilder stringBuilder, long cents) {
+        if (cents < 0) {
+            stringBuilder.append('-');
+            // the magnitude of Long.MIN_VALUE does not fit in a long
+            if (cents == Long.MIN_VALUE) {
+                return stringBuilder.append("92233720368547758.08");
+            }
+            cents = -cents;
+        }
+        long remainder = cents % CENTS_PER_DOLLAR;
+        stringBuilder.append(cents / CENTS_PER_DOLLAR).append('.');
+        if (remainder < 10) {
+            stringBuilder.append('0');
+        }
+        return stringBuilder.append(remainder);
+    }
+}
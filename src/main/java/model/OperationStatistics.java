@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * OperationStatistics contains the count, errors and latency of one kind of
+ * operation, such as a Command or an SQL operation, at the time it was read.
+ * Latencies are in nanoseconds and have at most 6.25% relative error.
+ *
+ * @param name the name of the operation
+ * @param count the number of times the operation was executed
+ * @param errors the number of executions that failed
+ * @param medianNanos the 50th percentile of the latency
+ * @param p99Nanos the 99th percentile of the latency
+ * @param p999Nanos the 99.9th percentile of the latency
+ * @param maxNanos the longest latency
+ * @param totalNanos the sum of the latencies
+ *
+ * @author Liam Tripp
+ */
+public record OperationStatistics(String name, long count, long errors, long medianNanos,
+                                  long p99Nanos, long p999Nanos, long maxNanos, long totalNanos) {
+
+    /**
+     * Returns the average latency of the operation.
+     *
+     * @return the average latency in nanoseconds, 0 if the operation was never executed
+     */
+    public double averageNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+}
@@ -0,0 +1,45 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * PooledConnection is a Connection handed out by the ConnectionPool together
+ * with the state that belongs to it, such as its cached statements. It is
+ * used by one thread at a time.
+ *
+ * @author Liam Tripp
+ */
+class PooledConnection {
+
+    private final Connection connection;
+    private final StatementCache statementCache;
+
+    /**
+     * Constructor for PooledConnection.
+     *
+     * @param connection the connection to the database
+     */
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+        statementCache = new StatementCache(connection);
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Closes the connection and its cached statements.
+     *
+     * @throws SQLException if the connection cannot be closed
+     */
+    void close() throws SQLException {
+        statementCache.close();
+        connection.close();
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import java.nio.file.Path;
+
+/**
+ * SlowStatementConfig contains where statements that take longer than a
+ * threshold are logged and how large the log may grow. The log is rotated
+ * once it reaches maxFileBytes, and only the newest maxFiles files are kept.
+ *
+ * @param path the path of the slow-statement log file
+ * @param thresholdMillis statements taking at least this long are logged, negative to log none
+ * @param maxFileBytes the size at which the log is rotated
+ * @param maxFiles the number of log files kept, including the current one
+ *
+ * @author Liam Tripp
+ */
+public record SlowStatementConfig(String path, long thresholdMillis, long maxFileBytes, int maxFiles) {
+
+    /** the name of the log file, which is kept next to the database file unless configured */
+    public final static String DEFAULT_FILE_NAME = "slow-statements.log";
+    public final static long DEFAULT_THRESHOLD_MILLIS = 100;
+    public final static long DEFAULT_MAX_FILE_BYTES = 10L << 20;
+    public final static int DEFAULT_MAX_FILES = 5;
+
+    /**
+     * Constructor for SlowStatementConfig.
+     *
+     * @throws IllegalArgumentException if the log could not be rotated with the provided sizes
+     */
+    public SlowStatementConfig {
+        if (maxFileBytes < 1) {
+            throw new IllegalArgumentException("The slow-statement log must be able to hold at least 1 byte.");
+        }
+        if (maxFiles < 1) {
+            throw new IllegalArgumentException("At least 1 slow-statement log file must be kept.");
+        }
+    }
+
+    /**
+     * Returns the default configuration for a database file. The log is
+     * written in the same directory as the database file.
+     *
+     * @param databasePath the path of the SQLite database file
+     * @return the default configuration of the slow-statement log
+     */
+    public static SlowStatementConfig getDefault(String databasePath) {
+        return new SlowStatementConfig(Path.of(databasePath).resolveSibling(DEFAULT_FILE_NAME).toString(),
+                DEFAULT_THRESHOLD_MILLIS, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES);
+    }
+
+    /**
+     * Returns a copy of the configuration with another threshold.
+     *
+     * @param thresholdMillis statements taking at least this long are logged, negative to log none
+     * @return the configuration with the threshold
+     */
+    public SlowStatementConfig withThresholdMillis(long thresholdMillis) {
+        return new SlowStatementConfig(path, thresholdMillis, maxFileBytes, maxFiles);
+    }
+
+    /**
+     * Returns whether any statement is logged.
+     *
+     * @return true if the threshold is not negative, false otherwise
+     */
+    public boolean isEnabled() {
+        return thresholdMillis >= 0;
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SlowStatementLog appends the statements that took longer than a threshold
+ * to a log file, together with their parameters, the number of rows they
+ * read or changed and how SQLite executed them. Once the file is full, it is
+ * renamed to [path].1, older files are shifted up by one and the oldest is
+ * deleted. The log file is only created when the first slow statement is
+ * written.
+ *
+ * @author Liam Tripp
+ */
+class SlowStatementLog {
+
+    private final Path path;
+    private final long thresholdNanos;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    /**
+     * Constructor for SlowStatementLog.
+     *
+     * @param config where and when slow statements are logged
+     */
+    SlowStatementLog(SlowStatementConfig config) {
+        path = Path.of(config.path());
+        thresholdNanos = config.isEnabled() ? config.thresholdMillis() * 1_000_000 : -1;
+        maxFileBytes = config.maxFileBytes();
+        maxFiles = config.maxFiles();
+    }
+
+    /**
+     * Returns whether a statement took long enough to be logged.
+     *
+     * @param nanos how long the statement took in nanoseconds
+     * @return true if the statement should be logged, false otherwise
+     */
+    boolean isSlow(long nanos) {
+        return thresholdNanos >= 0 && nanos >= thresholdNanos;
+    }
+
+    /**
+     * Appends a slow statement to the log, rotating the log first if the
+     * entry does not fit. A log that cannot be written is reported, but
+     * does not fail the statement.
+     *
+     * @param sql the SQL of the statement
+     * @param parameters the values bound to the statement's parameters
+     * @param rows the number of rows read or changed by the statement
+     * @param nanos how long the statement took in nanoseconds
+     * @param queryPlan the lines of the statement's EXPLAIN QUERY PLAN
+     */
+    synchronized void write(String sql, List<Object> parameters, long rows, long nanos, List<String> queryPlan) {
+        byte[] entry = formatEntry(Instant.now(), sql, parameters, rows, nanos, queryPlan)
+                .getBytes(StandardCharsets.UTF_8);
+        try {
+            if (Files.exists(path) && Files.size(path) > 0 && Files.size(path) + entry.length > maxFileBytes) {
+                rotate();
+            }
+            Files.write(path, entry, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write to the slow-statement log " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats a slow statement as an entry of the log. Each entry ends with
+     * an empty line.
+     *
+     * @param time when the statement finished
+     * @param sql the SQL of the statement
+     * @param parameters the values bound to the statement's parameters
+     * @param rows the number of rows read or changed by the statement
+     * @param nanos how long the statement took in nanoseconds
+     * @param queryPlan the lines of the statement's EXPLAIN QUERY PLAN
+     * @return the entry
+     */
+    static String formatEntry(Instant time, String sql, List<Object> parameters, long rows, long nanos,
+                              List<String> queryPlan) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(time).append(' ')
+                .append(String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000.0)).append(' ')
+                .append(rows).append(rows == 1 ? " row" : " rows").append('\n');
+        entry.append(sql.strip()).append('\n');
+        entry.append("parameters: ").append(parameters).append('\n');
+        entry.append("query plan:\n");
+        for (String line : queryPlan) {
+            entry.append("  ").append(line).append('\n');
+        }
+        return entry.append('\n').toString();
+    }
+
+    /**
+     * Renames the log to [path].1 after shifting each older file up by one.
+     * The oldest file is deleted so that at most maxFiles files are kept.
+     *
+     * @throws IOException if a file cannot be renamed or deleted
+     */
+    private void rotate() throws IOException {
+        if (maxFiles == 1) {
+            Files.delete(path);
+            return;
+        }
+        Files.deleteIfExists(getRotatedPath(maxFiles - 1));
+        for (int index = maxFiles - 2; index >= 1; index--) {
+            Path rotatedPath = getRotatedPath(index);
+            if (Files.exists(rotatedPath)) {
+                Files.move(rotatedPath, getRotatedPath(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, getRotatedPath(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the path of a rotated log file.
+     *
+     * @param index the number of rotations since the file was the current log
+     * @return the path of the rotated file
+     */
+    Path getRotatedPath(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
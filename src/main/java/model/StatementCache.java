@@ -0,0 +1,70 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * StatementCache prepares each distinct SQL statement once for a Connection
+ * and reuses it for every later call, so SQLite only parses and plans a
+ * statement the first time it is seen.
+ *
+ * @author Liam Tripp
+ */
+class StatementCache {
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> preparedStatements;
+
+    /**
+     * Constructor for StatementCache.
+     *
+     * @param connection the connection the statements are prepared on
+     */
+    StatementCache(Connection connection) {
+        this.connection = connection;
+        preparedStatements = new HashMap<>();
+    }
+
+    /**
+     * Returns the PreparedStatement for the given SQL, preparing it if it has
+     * not been seen before. Previously bound parameters are cleared.
+     *
+     * @param sql the SQL statement with '?' placeholders for its values
+     * @return the cached PreparedStatement for the SQL
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement preparedStatement = preparedStatements.get(sql);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(sql);
+            preparedStatements.put(sql, preparedStatement);
+        } else {
+            preparedStatement.clearParameters();
+        }
+        return preparedStatement;
+    }
+
+    /**
+     * Returns the number of statements that have been prepared.
+     *
+     * @return the number of cached statements
+     */
+    int size() {
+        return preparedStatements.size();
+    }
+
+    /**
+     * Closes every cached statement.
+     *
+     * @throws SQLException if a statement cannot be closed
+     */
+    void close() throws SQLException {
+        for (PreparedStatement preparedStatement : preparedStatements.values()) {
+            preparedStatement.close();
+        }
+        preparedStatements.clear();
+    }
+}
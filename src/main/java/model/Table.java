@@ -1,20 +1,127 @@
 package model;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Table allows other classes to access the names of the tables.
+ * Table is also the schema registry: it holds the column names and indexes
+ * of each table and the row mapper that creates an Item from one of its rows.
+ * They are built once when the class is loaded.
  *
  * @author Liam Tripp
  */
 public enum Table {
-    ITEMS,
-    DELETED_ITEMS;
+    ITEMS(Item::new, "id", "name", "price", "stock"),
+    DELETED_ITEMS(DeletedItem::new, "id", "name", "price", "stock", "comment");
+
+    /** the tables mapped to their names */
+    private final static Map<String, Table> TABLES_BY_NAME = new HashMap<>();
+
+    static {
+        for (Table table : values()) {
+            TABLES_BY_NAME.put(table.name, table);
+        }
+    }
+
+    private final String name;
+    private final RowMapper rowMapper;
+    private final List<String> columnNames;
+    private final String columnList;
+    private final String columnListExceptId;
 
     /**
-     * Returns the Command as a String.
+     * Constructor for Table.
      *
-     * @return a String with the Command's name as a String
+     * @param rowMapper creates an Item from a row of the table
+     * @param columnNames the names of the columns in the order they are defined in DDL.sql
+     */
+    Table(RowMapper rowMapper, String... columnNames) {
+        name = name().toLowerCase();
+        this.rowMapper = rowMapper;
+        this.columnNames = List.of(columnNames);
+        columnList = String.join(", ", columnNames);
+        columnListExceptId = String.join(", ", Arrays.copyOfRange(columnNames, 1, columnNames.length));
+    }
+
+    /**
+     * Returns the Table as a String.
+     *
+     * @return a String with the Table's name as a String
      */
     public String getName() {
-        return name().toLowerCase();
+        return name;
+    }
+
+    /**
+     * Returns the names of the table's columns in order.
+     *
+     * @return an unmodifiable list of the column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the table's column names as a comma-separated list.
+     *
+     * @return the column names separated by commas
+     */
+    public String getColumnList() {
+        return columnList;
+    }
+
+    /**
+     * Returns the table's column names except id as a comma-separated list.
+     *
+     * @return the column names except id separated by commas
+     */
+    public String getColumnListExceptId() {
+        return columnListExceptId;
+    }
+
+    /**
+     * Returns the JDBC index of a column in rows selected with getColumnList().
+     *
+     * @param columnName the name of the column
+     * @return the 1-based index of the column, -1 if the table has no such column
+     */
+    public int getColumnIndex(String columnName) {
+        int index = columnNames.indexOf(columnName);
+        return index == -1 ? -1 : index + 1;
+    }
+
+    /**
+     * Creates an Item from the current row of a ResultSet containing the
+     * table's columns in order.
+     *
+     * @param resultSet the ResultSet positioned on the row
+     * @return the row as an Item
+     * @throws SQLException if a column cannot be read
+     */
+    public Item mapRow(ResultSet resultSet) throws SQLException {
+        return rowMapper.map(resultSet);
+    }
+
+    /**
+     * Returns the Table with the provided name.
+     *
+     * @param tableName the name of the table
+     * @return the Table with the name, null if there is none
+     */
+    public static Table getTable(String tableName) {
+        return TABLES_BY_NAME.get(tableName);
+    }
+
+    /**
+     * RowMapper creates an Item from a row by reading its columns by index.
+     */
+    @FunctionalInterface
+    interface RowMapper {
+        Item map(ResultSet resultSet) throws SQLException;
     }
 }
@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * TableStatistics contains the aggregates of a table of Items as computed by
+ * SQLite. Prices and inventory value are in cents. The averages, minimums
+ * and maximums of an empty table are 0.
+ *
+ * @param rowCount the number of rows in the table
+ * @param totalPrice the sum of the prices of every row
+ * @param averagePrice the average price of a row
+ * @param minimumPrice the lowest price in the table
+ * @param maximumPrice the highest price in the table
+ * @param totalStock the sum of the stock of every row
+ * @param averageStock the average stock of a row
+ * @param minimumStock the lowest stock in the table
+ * @param maximumStock the highest stock in the table
+ * @param inventoryValue the sum of price * stock of every row
+ * @param lowStockThreshold the stock below which a row counts as low stock
+ * @param lowStockCount the number of rows with stock below the threshold
+ *
+ * @author Liam Tripp
+ */
+public record TableStatistics(long rowCount,
+                              long totalPrice, double averagePrice, long minimumPrice, long maximumPrice,
+                              long totalStock, double averageStock, long minimumStock, long maximumStock,
+                              long inventoryValue, int lowStockThreshold, long lowStockCount) {
+}
@@ -0,0 +1,36 @@
+package presenter;
+
+/**
+ * CacheStatistics contains the counters of the DatabasePresenter's item
+ * cache since it was created.
+ *
+ * @param hits the number of reads answered by the cache
+ * @param misses the number of reads that went to the Database
+ * @param evictions the number of items removed to make room for others
+ * @param size the number of items in the cache
+ * @param capacity the maximum number of items in the cache
+ *
+ * @author Liam Tripp
+ */
+public record CacheStatistics(long hits, long misses, long evictions, int size, int capacity) {
+
+    /**
+     * Returns the fraction of reads answered by the cache.
+     *
+     * @return the hit rate between 0 and 1, 0 if there have been no reads
+     */
+    public double hitRate() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    /**
+     * Returns the fraction of reads that went to the Database.
+     *
+     * @return the miss rate between 0 and 1, 0 if there have been no reads
+     */
+    public double missRate() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) misses / reads;
+    }
+}
@@ -1,11 +1,21 @@
 package presenter;
 
 import model.Database;
-import model.DeletedItem;
 import model.Item;
+import model.ItemFilter;
+import model.Metrics;
+import model.Money;
 import model.Table;
+import model.TableStatistics;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * DatabasePresenter allows the DatabaseCLI to interact with the Database and
@@ -16,12 +26,32 @@ import java.util.List;
 public class DatabasePresenter {
 
     private Database database;
+    /** the most recently read items of the items table */
+    private final ItemCache itemCache;
+    /** commits creates and updates in batches on a writer thread, null if writes are synchronous */
+    private WriteBehindQueue writeBehindQueue;
+    /** items with less stock than this are reported as low stock */
+    public final static int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+    /** the number of items in each page of search results by default */
+    public final static int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    /** the number of items kept in the item cache by default */
+    public final static int DEFAULT_ITEM_CACHE_CAPACITY = 10_000;
 
     /**
      * Constructor for DatabasePresenter.
      */
     public DatabasePresenter() {
+        this(DEFAULT_ITEM_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructor for DatabasePresenter.
+     *
+     * @param itemCacheCapacity the number of items kept in the item cache, 0 to disable it
+     */
+    public DatabasePresenter(int itemCacheCapacity) {
         database = null;
+        itemCache = new ItemCache(itemCacheCapacity);
     }
 
     /**
@@ -31,93 +61,432 @@ public class DatabasePresenter {
      */
     public void addDatabase(Database database) {
         this.database = database;
+        itemCache.clear();
+    }
+
+    /**
+     * Starts the write-behind mode with the default queue capacity, batch
+     * size and linger time. See startWriteBehind(int, int, long).
+     */
+    public void startWriteBehind() {
+        startWriteBehind(WriteBehindQueue.DEFAULT_CAPACITY, WriteBehindQueue.DEFAULT_MAX_BATCH_SIZE,
+                WriteBehindQueue.DEFAULT_MAX_LINGER_MICROS);
     }
 
     /**
-     * Inserts an item into the items table.
+     * Starts the write-behind mode. Creates and updates are queued and
+     * committed in batches by a writer thread, one transaction per batch,
+     * so concurrent writers share commits. The queue depth, the batch size
+     * and the latency of each flush are recorded in the Database's Metrics.
+     *
+     * @param capacity the maximum number of writes waiting in the queue
+     * @param maxBatchSize the maximum number of writes committed in one transaction
+     * @param maxLingerMicros how long the writer waits for more writes to fill a batch
+     */
+    public void startWriteBehind(int capacity, int maxBatchSize, long maxLingerMicros) {
+        if (writeBehindQueue != null) {
+            throw new IllegalStateException("Write-behind has already been started.");
+        }
+        writeBehindQueue = new WriteBehindQueue(database, capacity, maxBatchSize, maxLingerMicros);
+    }
+
+    /**
+     * Returns whether creates and updates are committed in batches by a
+     * writer thread.
+     *
+     * @return true if the write-behind mode has been started, false otherwise
+     */
+    public boolean isWriteBehind() {
+        return writeBehindQueue != null;
+    }
+
+    /**
+     * Inserts an item into the items table. In write-behind mode, the caller
+     * waits until the batch containing the insert is committed.
+     *
+     * @param item the item being inserted into the table
+     * @return the inserted item with the id assigned by the database
+     */
+    public Item createItem(Item item) {
+        if (!isQueued()) {
+            return insertItem(item);
+        }
+        return await(createItemAsync(item));
+    }
+
+    /**
+     * Inserts an item into the items table without waiting for it to be
+     * committed. Without write-behind mode, the item is inserted before the
+     * future is returned.
      *
      * @param item the item being inserted into the table
+     * @return a future completed with the inserted item once it is committed
+     */
+    public CompletableFuture<Item> createItemAsync(Item item) {
+        if (!isQueued()) {
+            return CompletableFuture.completedFuture(insertItem(item));
+        }
+        // readers may cache the old row of a reused id until the batch commits
+        return writeBehindQueue.submit(() -> insertItem(item),
+                insertedItem -> itemCache.invalidate(insertedItem.getId()));
+    }
+
+    /**
+     * Inserts an item into the items table and invalidates its id in the
+     * item cache.
+     *
+     * @param item the item being inserted into the table
+     * @return the inserted item with the id assigned by the database
+     */
+    private Item insertItem(Item item) {
+        long id = database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                item.getValuesExceptId());
+        // the id of a deleted item may be reused
+        itemCache.invalidate(id);
+        return new Item(Math.toIntExact(id), item.getName(), item.getPriceInCents(), item.getStock());
+    }
+
+    /**
+     * Inserts items into the items table in one transaction. Either all of
+     * the items are inserted or none of them are.
+     *
+     * @param items the items being inserted into the table
+     * @return the inserted items with the ids assigned by the database, in the same order
+     */
+    public List<Item> createItems(List<Item> items) {
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (Item item : items) {
+            rows.add(item.getValuesExceptId());
+        }
+        long[] ids = database.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), rows);
+
+        List<Item> createdItems = new ArrayList<>(items.size());
+        for (int i = 0; i < ids.length; i++) {
+            Item item = items.get(i);
+            itemCache.invalidate(ids[i]);
+            createdItems.add(new Item(Math.toIntExact(ids[i]), item.getName(), item.getPriceInCents(), item.getStock()));
+        }
+        return createdItems;
+    }
+
+    /**
+     * Returns the item with the provided id from the selected table. Items
+     * of the items table are read from the item cache if possible. Items
+     * read in a transaction are not cached, since other threads could see
+     * them before they are committed or after they are rolled back.
+     *
+     * @param tableName the name of the table
+     * @param itemId the id of the item
+     * @return the item, null if the table or the item does not exist
      */
-    public void createItem(Item item) {
-        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                item.getValuesInSQLFormatExceptId());
+    public Item readItem(String tableName, String itemId) {
+        Table table = Table.getTable(tableName);
+        if (table == null) {
+            return null;
+        }
+        if (table != Table.ITEMS) {
+            List<Item> items = database.selectFromTable(tableName, "*", itemId);
+            return items.isEmpty() ? null : items.get(0);
+        }
+
+        long id = parseId(itemId);
+        Item item = itemCache.get(id);
+        if (item != null) {
+            return item;
+        }
+        long readGeneration = itemCache.getGeneration();
+        List<Item> items = database.selectFromTable(tableName, "*", itemId);
+        if (items.isEmpty()) {
+            return null;
+        }
+        item = items.get(0);
+        if (!database.isInTransaction()) {
+            itemCache.put(item, readGeneration);
+        }
+        return item;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the item cache.
+     *
+     * @return the statistics of the item cache
+     */
+    public CacheStatistics getCacheStatistics() {
+        return itemCache.getStatistics();
+    }
+
+    /**
+     * Returns the metrics of the Database, which the views also record
+     * their commands in.
+     *
+     * @return the metrics of the Database
+     */
+    public Metrics getMetrics() {
+        return database.getMetrics();
     }
 
     /**
      * Returns a list of all items from the selected table.
      */
     public List<Item> readFromTable(String tableName) {
-        if (!tableName.equals(Table.ITEMS.getName()) &&
-                !(tableName.equals(Table.DELETED_ITEMS.getName()))) {
+        if (Table.getTable(tableName) == null) {
             return null;
         }
         return database.selectFromTable(tableName, "*");
     }
 
+    /**
+     * Returns the items of the selected table as a Stream ordered by id,
+     * starting after the provided id. The Stream reads rows as it is consumed
+     * and must be closed once it is no longer needed.
+     *
+     * @param tableName the name of the table
+     * @param afterId only items with a greater id are returned
+     * @param limit the maximum number of items returned, negative for no limit
+     * @return a Stream of the items, null if the table does not exist
+     */
+    public Stream<Item> streamFromTable(String tableName, long afterId, int limit) {
+        if (Table.getTable(tableName) == null) {
+            return null;
+        }
+        return database.streamFromTable(tableName, afterId, limit);
+    }
+
+    /**
+     * Returns the items of the items table that match a filter, ordered by
+     * the filter's column.
+     *
+     * @param filter the condition the items must match
+     * @param limit the maximum number of items returned, negative for no limit
+     * @param values the values the filter's column is compared to, with prices in cents
+     * @return the matching items
+     */
+    public List<Item> findItems(ItemFilter filter, int limit, Object... values) {
+        return database.findItems(filter, limit, values);
+    }
+
+    /**
+     * Returns a page of the items whose names contain every search term,
+     * best matches first.
+     *
+     * @param terms the whitespace-separated terms every name must contain
+     * @param page the number of the page, starting at 1
+     * @param pageSize the number of items in each page
+     * @return the matching items in the page
+     */
+    public List<Item> searchItems(String terms, int page, int pageSize) {
+        List<String> termList = List.of(terms.trim().split("\\s+"));
+        return database.searchItems(termList, (page - 1) * pageSize, pageSize);
+    }
+
+    /**
+     * Returns the row count, price and stock aggregates, inventory value and
+     * low-stock count of the selected table.
+     *
+     * @param tableName the name of the table
+     * @param lowStockThreshold items with less stock than this are counted as low stock
+     * @return the statistics of the table, null if the table does not exist
+     */
+    public TableStatistics getTableStatistics(String tableName, int lowStockThreshold) {
+        if (Table.getTable(tableName) == null) {
+            return null;
+        }
+        return database.getTableStatistics(tableName, lowStockThreshold);
+    }
+
+    /**
+     * Returns the statistics of the selected table using the default
+     * low-stock threshold.
+     *
+     * @param tableName the name of the table
+     * @return the statistics of the table, null if the table does not exist
+     */
+    public TableStatistics getTableStatistics(String tableName) {
+        return getTableStatistics(tableName, DEFAULT_LOW_STOCK_THRESHOLD);
+    }
+
     /**
      * Updates an Item in the items table.
      *
      * @param itemId the id of the item
-     * @param columnValuePair the name-value pair of the attribute to be updated
+     * @param columnValuePairs the comma-separated name-value pairs of the attributes to be updated
+     * @return the updated item, null if there is no item with the id
+     */
+    public Item updateItem(String itemId, String columnValuePairs) {
+        return updateItem(itemId, getColumnValues(columnValuePairs));
+    }
+
+    /**
+     * Updates the columns of an Item in the items table. In write-behind
+     * mode, the caller waits until the batch containing the update is
+     * committed.
+     *
+     * @param itemId the id of the item
+     * @param columnValues the column names mapped to their new values, with prices in cents
+     * @return the updated item, null if there is no item with the id
+     */
+    public Item updateItem(String itemId, Map<String, Object> columnValues) {
+        if (!isQueued()) {
+            return updateItemColumns(itemId, columnValues);
+        }
+        return await(updateItemAsync(itemId, columnValues));
+    }
+
+    /**
+     * Updates the columns of an Item in the items table without waiting for
+     * the update to be committed. Without write-behind mode, the item is
+     * updated before the future is returned.
+     *
+     * @param itemId the id of the item
+     * @param columnValues the column names mapped to their new values, with prices in cents
+     * @return a future completed with the updated item, or null if there is no item with the id, once it is committed
+     */
+    public CompletableFuture<Item> updateItemAsync(String itemId, Map<String, Object> columnValues) {
+        // an invalid id is reported to the caller instead of failing the writer's batch
+        parseId(itemId);
+        if (!isQueued()) {
+            return CompletableFuture.completedFuture(updateItemColumns(itemId, columnValues));
+        }
+        Map<String, Object> values = new LinkedHashMap<>(columnValues);
+        // readers may cache the old row until the batch commits
+        return writeBehindQueue.submit(() -> updateItemColumns(itemId, values),
+                updatedItem -> itemCache.invalidate(parseId(itemId)));
+    }
+
+    /**
+     * Updates the columns of an Item in the items table and invalidates it
+     * in the item cache.
+     *
+     * @param itemId the id of the item
+     * @param columnValues the column names mapped to their new values, with prices in cents
+     * @return the updated item, null if there is no item with the id
+     */
+    private Item updateItemColumns(String itemId, Map<String, Object> columnValues) {
+        try {
+            return database.updateItem(itemId, columnValues);
+        } finally {
+            itemCache.invalidate(parseId(itemId));
+        }
+    }
+
+    /**
+     * Returns whether a write should go through the write-behind queue. A
+     * write made in a transaction is executed in it instead, so that it is
+     * committed or rolled back with the rest of the transaction.
+     *
+     * @return true if the write should be queued, false otherwise
+     */
+    private boolean isQueued() {
+        return writeBehindQueue != null && !database.isInTransaction();
+    }
+
+    /**
+     * Waits for a queued write to be committed.
+     *
+     * @param future the future of the write
+     * @param <T> the result of the write
+     * @return the result of the write
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // rethrow what the write threw, as a synchronous write would have
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
+
+    /**
+     * Converts name-value pairs like "name = 'value'" into a map of column
+     * names to values that can be bound to an SQL statement. Prices are
+     * converted from dollars to cents.
+     *
+     * @param columnValuePairs comma-separated name-value pairs
+     * @return the column names mapped to their values
      */
-    public Item updateItem(String itemId, String columnValuePair) {
-        Item updatedItem = database.updateItem(itemId, columnValuePair);
-        return updatedItem;
+    Map<String, Object> getColumnValues(String columnValuePairs) {
+        Map<String, Object> columnValues = new LinkedHashMap<>();
+        for (String columnValuePair : columnValuePairs.split(",")) {
+            String[] nameAndValue = columnValuePair.split("=", 2);
+            String column = nameAndValue[0].trim().toLowerCase();
+            String value = nameAndValue[1].trim();
+            switch (column) {
+                case "name" -> columnValues.put(column, value.replaceAll("^'|'$", ""));
+                case "price" -> columnValues.put(column, Money.parseCents(value));
+                default -> columnValues.put(column, Integer.parseInt(value));
+            }
+        }
+        return columnValues;
     }
 
     /**
      * Deletes an item from the Items table and inserts it into the
-     * Deleted_Items table.
+     * Deleted_Items table. Both happen in one transaction.
      *
      * @param itemId the id of the item to be deleted
      * @param comment (optional) the user's comment for the item's deletion
+     * @return the deleted item, null if there is no item with the id
      */
     public Item deleteItem(String itemId, String comment) {
-        List<Item> items = database.selectFromTable(Table.ITEMS.getName(), "*", itemId);
-        if (items.isEmpty()) {
-            return null;
-        }
-
-        Item item = items.get(0);
-        String columns;
-        String values = item.getValuesInSQLFormat();
-        if (!comment.isBlank()) {
-            item = new DeletedItem(item, comment);
-            columns = String.join(", ", DeletedItem.getAttributeNamesAsArray());
-            values = ((DeletedItem) item).getDeletedItemValuesInSQLFormat();
-        } else {
-            columns = String.join(", ", Item.getAttributeNamesAsArray());
+        try {
+            return database.deleteItem(itemId, comment);
+        } finally {
+            itemCache.invalidate(parseId(itemId));
         }
-
-        database.deleteFromTable(Table.ITEMS.getName(), itemId);
-        database.insert(Table.DELETED_ITEMS.getName(), columns, values);
-        return item;
     }
 
     /**
-     * Restores an item from the table of deleted_items.
+     * Restores an item from the table of deleted_items. The item is moved
+     * back to the items table in one transaction.
      *
      * @param itemId the id of the item being restored
-     * @return the item that was restored
+     * @return the item that was restored, null if there is no deleted item with the id
      */
     public Item restoreItem(String itemId) {
-        List<Item> items = database.selectFromTable(Table.DELETED_ITEMS.getName(), "*", itemId);
-        if (items.isEmpty()) {
-            return null;
+        try {
+            return database.restoreItem(itemId);
+        } finally {
+            itemCache.invalidate(parseId(itemId));
         }
-        database.deleteFromTable(Table.DELETED_ITEMS.getName(), itemId);
+    }
 
-        Item item = items.get(0);
-        String values = item.getValuesInSQLFormat(); // exclude comment
-        String columns = String.join(", ", Item.getAttributeNamesAsArray());
-        database.insert(Table.ITEMS.getName(), columns, values);
-        return item;
+    /**
+     * Executes work in a single Database transaction. The changes made by
+     * the work are committed together or not at all. The item cache is
+     * cleared once the transaction ends.
+     *
+     * @param work the work to execute
+     * @param <T> the result of the work
+     * @return the result of the work
+     */
+    public <T> T runInTransaction(Supplier<T> work) {
+        try {
+            return database.runInTransaction(work);
+        } finally {
+            // other threads may have cached rows that the transaction changed
+            // before it committed, and rolled back rows may have been cached
+            itemCache.clear();
+        }
     }
 
     /**
-     * Shuts down the Database.
+     * Converts an item id to the key used by the item cache.
+     *
+     * @param itemId the id of the item as a String
+     * @return the id of the item as a long
+     */
+    private static long parseId(String itemId) {
+        return Long.parseLong(itemId.trim());
+    }
+
+    /**
+     * Shuts down the Database. In write-behind mode, the queued writes are
+     * committed first.
      */
     public void terminateDatabase() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.shutdown();
+        }
         database.shutdown();
     }
 }
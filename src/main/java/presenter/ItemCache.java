@@ -0,0 +1,126 @@
+package presenter;
+
+import model.Item;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ItemCache holds the most recently used Items of the items table by id, so
+ * repeated reads of the same items do not go to the Database. When the cache
+ * is full, the least recently used item is evicted.
+ *
+ * Every write to an item must invalidate it. A read that began before a write
+ * may have read the old row, so it is only cached if no invalidation happened
+ * since the read began.
+ *
+ * @author Liam Tripp
+ */
+class ItemCache {
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Item> items;
+    /** incremented by every invalidation */
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor for ItemCache.
+     *
+     * @param capacity the maximum number of items in the cache, 0 to disable it
+     */
+    ItemCache(int capacity) {
+        this.capacity = capacity;
+        // access order makes the first entry the least recently used
+        items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Item> eldest) {
+                if (size() > ItemCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached item with the provided id, counting the
+     * read as a hit or a miss.
+     *
+     * @param id the id of the item
+     * @return a copy of the item, null if it is not cached
+     */
+    synchronized Item get(long id) {
+        Item item = items.get(id);
+        if (item == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(item);
+    }
+
+    /**
+     * Returns the current generation, which must be read before the Database
+     * is read so the result can be passed to put.
+     *
+     * @return the number of invalidations so far
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a copy of an item read from the Database, unless an item was
+     * invalidated after the read began.
+     *
+     * @param item the item read from the Database
+     * @param readGeneration the generation before the item was read
+     */
+    synchronized void put(Item item, long readGeneration) {
+        if (capacity > 0 && readGeneration == generation) {
+            items.put((long) item.getId(), copyOf(item));
+        }
+    }
+
+    /**
+     * Removes an item whose row has changed.
+     *
+     * @param id the id of the item
+     */
+    synchronized void invalidate(long id) {
+        generation++;
+        items.remove(id);
+    }
+
+    /**
+     * Removes every item, for example when the rows may have changed outside
+     * of the cache.
+     */
+    synchronized void clear() {
+        generation++;
+        items.clear();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, items.size(), capacity);
+    }
+
+    /**
+     * Copies an item so the cached item cannot be changed by its readers.
+     *
+     * @param item the item to copy
+     * @return a copy of the item without any DeletedItem fields
+     */
+    private static Item copyOf(Item item) {
+        return new Item(item.getId(), item.getName(), item.getPriceInCents(), item.getStock());
+    }
+}
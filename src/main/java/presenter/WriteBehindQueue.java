@@ -0,0 +1,303 @@
+package presenter;
+
+import model.Database;
+import model.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * WriteBehindQueue holds writes to the Database in a bounded queue and
+ * executes them on a dedicated writer thread. The writer drains the queue in
+ * batches and commits each batch in one transaction, so a burst of writes
+ * costs one commit per batch instead of one per write. Writes are executed
+ * in the order they were submitted. Callers are given a future that
+ * completes once their write is committed. Each write may also have an
+ * action that runs after the commit and before the future completes, for
+ * example to invalidate cached rows that other threads may have read while
+ * the batch was not yet committed.
+ *
+ * The batch size adapts to the load: it doubles while batches are full and
+ * halves while they are mostly empty. After a batch of several writes, the
+ * writer lingers briefly for more writes before committing. After a single
+ * write, it does not, so occasional writes are not delayed.
+ *
+ * @author Liam Tripp
+ */
+class WriteBehindQueue {
+
+    /** the maximum number of writes waiting in the queue by default */
+    final static int DEFAULT_CAPACITY = 10_000;
+    /** the maximum number of writes committed in one transaction by default */
+    final static int DEFAULT_MAX_BATCH_SIZE = 1_000;
+    /** how long the writer waits for more writes to fill a batch by default */
+    final static long DEFAULT_MAX_LINGER_MICROS = 2_000;
+    private final static int MIN_BATCH_SIZE = 16;
+    /** marks the end of the writes, so the writer stops once it is reached */
+    private final static PendingWrite<Void> STOP = new PendingWrite<>(() -> null, result -> {});
+
+    private final Database database;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final Thread writerThread;
+    /** the current batch size, only changed by the writer thread */
+    private volatile int batchSize;
+    private long lingerNanos;
+    private boolean closed;
+
+    /**
+     * Constructor for WriteBehindQueue. The writer thread is started and the
+     * queue depth and batch size are reported as gauges of the Database's
+     * Metrics.
+     *
+     * @param database the database the writes are executed on
+     * @param capacity the maximum number of writes waiting in the queue
+     * @param maxBatchSize the maximum number of writes committed in one transaction
+     * @param maxLingerMicros how long the writer waits for more writes to fill a batch
+     */
+    WriteBehindQueue(Database database, int capacity, int maxBatchSize, long maxLingerMicros) {
+        if (capacity < 1 || maxBatchSize < 1 || maxLingerMicros < 0) {
+            throw new IllegalArgumentException("The capacity and batch size must be at least 1 " +
+                    "and the linger time cannot be negative.");
+        }
+        this.database = database;
+        // one extra slot so that STOP can always be added
+        queue = new ArrayBlockingQueue<>(capacity + 1);
+        this.maxBatchSize = maxBatchSize;
+        maxLingerNanos = TimeUnit.MICROSECONDS.toNanos(maxLingerMicros);
+        batchSize = Math.min(MIN_BATCH_SIZE, maxBatchSize);
+        lingerNanos = 0;
+        closed = false;
+
+        Metrics metrics = database.getMetrics();
+        metrics.registerGauge("warehouse_write_behind_queue_depth",
+                "The number of writes waiting to be committed.", this::getQueueDepth);
+        metrics.registerGauge("warehouse_write_behind_batch_size",
+                "The number of writes the writer commits in one transaction.", this::getBatchSize);
+
+        writerThread = new Thread(this::drain, "write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Adds a write to the queue, waiting for room if the queue is full.
+     *
+     * @param write the write, which calls Database methods and returns their result
+     * @param afterCommit called with the result once the write is committed, before the future completes
+     * @param <T> the result of the write
+     * @return a future completed with the result once the write is committed
+     * @throws IllegalStateException if the queue has been shut down
+     */
+    synchronized <T> CompletableFuture<T> submit(Supplier<T> write, Consumer<? super T> afterCommit) {
+        if (closed) {
+            throw new IllegalStateException("The write-behind queue has been shut down.");
+        }
+        PendingWrite<T> pendingWrite = new PendingWrite<>(write, afterCommit);
+        try {
+            queue.put(pendingWrite);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return pendingWrite.future;
+    }
+
+    /**
+     * Returns the number of writes waiting to be committed.
+     *
+     * @return the depth of the queue
+     */
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of writes the writer currently commits in one
+     * transaction.
+     *
+     * @return the current batch size
+     */
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Stops accepting writes and waits until every write in the queue is
+     * committed.
+     */
+    void shutdown() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(STOP);
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Takes batches of writes from the queue and commits them until STOP is
+     * reached.
+     */
+    private void drain() {
+        List<PendingWrite<?>> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - batch.size());
+                long lingerDeadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize && batch.get(batch.size() - 1) != STOP) {
+                    long remainingNanos = lingerDeadline - System.nanoTime();
+                    PendingWrite<?> pendingWrite = remainingNanos > 0 ?
+                            queue.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+                    if (pendingWrite == null) {
+                        break;
+                    }
+                    batch.add(pendingWrite);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // the writer is only stopped by STOP, so the writes taken so far are committed
+            }
+            // STOP is the last write ever added, so it can only be at the end of a batch
+            if (!batch.isEmpty() && batch.get(batch.size() - 1) == STOP) {
+                batch.remove(batch.size() - 1);
+                stopping = true;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                adapt(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Commits a batch of writes in one transaction and completes their
+     * futures. If the transaction fails, each write is retried in its own
+     * transaction, so a failed write only fails its own future.
+     *
+     * @param batch the writes to commit, in the order they were submitted
+     */
+    private void flush(List<PendingWrite<?>> batch) {
+        long startTime = System.nanoTime();
+        boolean failed = false;
+        try {
+            database.runInTransaction(() -> {
+                for (PendingWrite<?> pendingWrite : batch) {
+                    pendingWrite.execute();
+                }
+                return null;
+            });
+            for (PendingWrite<?> pendingWrite : batch) {
+                pendingWrite.complete();
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            if (batch.size() == 1) {
+                batch.get(0).fail(e);
+                return;
+            }
+            for (PendingWrite<?> pendingWrite : batch) {
+                try {
+                    database.runInTransaction(() -> {
+                        pendingWrite.execute();
+                        return null;
+                    });
+                    pendingWrite.complete();
+                } catch (RuntimeException writeException) {
+                    pendingWrite.fail(writeException);
+                }
+            }
+        } finally {
+            database.getMetrics().record(Metrics.Group.SQL, "write_behind_flush",
+                    System.nanoTime() - startTime, failed);
+        }
+    }
+
+    /**
+     * Adjusts the batch size and linger time to the size of the last batch.
+     *
+     * @param flushedWrites the number of writes in the last batch
+     */
+    private void adapt(int flushedWrites) {
+        if (flushedWrites >= batchSize) {
+            batchSize = Math.min(batchSize * 2, maxBatchSize);
+        } else if (flushedWrites < batchSize / 4) {
+            batchSize = Math.max(batchSize / 2, Math.min(MIN_BATCH_SIZE, maxBatchSize));
+        }
+        // a single write is not followed by a burst, so the next one is not delayed
+        lingerNanos = flushedWrites > 1 ? maxLingerNanos : 0;
+    }
+
+    /**
+     * PendingWrite contains a write, its result once it is executed, the
+     * action run once it is committed and the future completed after that
+     * action.
+     *
+     * @param <T> the result of the write
+     */
+    private static class PendingWrite<T> {
+        private final Supplier<T> write;
+        private final Consumer<? super T> afterCommit;
+        private final CompletableFuture<T> future;
+        private T result;
+
+        /**
+         * Constructor for PendingWrite.
+         *
+         * @param write the write to execute
+         * @param afterCommit called with the result once the write is committed
+         */
+        PendingWrite(Supplier<T> write, Consumer<? super T> afterCommit) {
+            this.write = write;
+            this.afterCommit = afterCommit;
+            future = new CompletableFuture<>();
+        }
+
+        /**
+         * Executes the write in the writer's current transaction.
+         */
+        void execute() {
+            result = write.get();
+        }
+
+        /**
+         * Runs the action for the committed write and completes the future
+         * with its result.
+         */
+        void complete() {
+            try {
+                afterCommit.accept(result);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            future.complete(result);
+        }
+
+        /**
+         * Completes the future with the reason the write failed.
+         *
+         * @param exception why the write failed
+         */
+        void fail(RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+    }
+}
@@ -2,32 +2,58 @@ package view;
 
 import model.Table;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 /**
  * Command contains the commands used for the DatabaseCLI.
  *
  * @author Liam Tripp
  */
 public enum Command {
-    CREATE("(CREATE) (\\w+) (\\d+(?:\\.\\d+)?) (\\d+)"), // name price stock
+    CREATE("(CREATE) (\\w+) (\\d+(?:\\.\\d+)?) (\\d+)((?: ?; ?\\w+ \\d+(?:\\.\\d+)? \\d+)*)"), // name price stock moreItems
     READ("(READ) (" + String.join("|",
             Table.ITEMS.getName(),
-            Table.DELETED_ITEMS.getName()) + ")"),
-    UPDATE("(UPDATE) (\\d+) (name = '\\w+'|price = \\d+\\.\\d+|stock = \\d+)"),
+            Table.DELETED_ITEMS.getName()) + ")(?: AFTER (\\d+))?(?: LIMIT (\\d+))?(?: FORMAT (" + String.join("|",
+            ItemRenderer.Format.ALIGNED.getName(),
+            ItemRenderer.Format.CSV.getName(),
+            ItemRenderer.Format.JSON.getName()) + "))?"), // tableName afterId limit format
+    UPDATE("(UPDATE) (\\d+) ((?:name = '\\w+'|price = \\d+\\.\\d+|stock = \\d+)(?:, (?:name = '\\w+'|price = \\d+\\.\\d+|stock = \\d+))*)"), // id columnValuePairs
     DELETE("(DELETE) (\\d+) ?(.+)?"),
     RESTORE("(RESTORE) (\\d+)"),
+    FIND("(FIND) (name \\w+|prefix \\w+|price \\d+(?:\\.\\d+)? \\d+(?:\\.\\d+)?|stock (?:below|above) \\d+)(?: LIMIT (\\d+))?"), // filter values limit
+    SEARCH("(SEARCH) (\\w{3,}(?: \\w{3,})*)(?: PAGE ([1-9]\\d*))?(?: LIMIT ([1-9]\\d*))?"), // terms page limit
+    STATS("(STATS) (" + String.join("|",
+            Table.ITEMS.getName(),
+            Table.DELETED_ITEMS.getName()) + ")(?: (\\d+))?"), // tableName lowStockThreshold
+    CACHE("(cache)"),
+    METRICS("(metrics)(?: export (\\S+))?"), // exportFile
     HELP("(help)"),
     TABLES("(tables)"),
     QUIT("(quit)");
 
+    /** the Commands mapped to their names, which are the first word of their input */
+    private final static Map<String, Command> COMMANDS_BY_NAME = new HashMap<>();
+
+    static {
+        for (Command command : values()) {
+            COMMANDS_BY_NAME.put(command.getName(), command);
+        }
+    }
+
     private final String regex;
+    private final Pattern pattern;
 
     /**
-     * Constructor for Command.
+     * Constructor for Command. The regular expression is compiled once here.
      *
-     * @param regex the regular expression for the
+     * @param regex the regular expression for the Command's input
      */
     Command(String regex) {
         this.regex = regex;
+        pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
     }
 
     /**
@@ -39,6 +65,16 @@ public enum Command {
         return regex;
     }
 
+    /**
+     * Returns the compiled, case-insensitive Pattern of the Command's
+     * Regular Expression.
+     *
+     * @return the Pattern associated with the Command
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
     /**
      * Returns the Command as a String.
      *
@@ -55,11 +91,21 @@ public enum Command {
      * @return the Command if the commandName is valid, null otherwise
      */
     public static Command getCommand(String commandName) {
-        try {
-            return valueOf(commandName.trim().toUpperCase());
-        } catch (IllegalArgumentException iae) {
+        Command command = findCommand(commandName);
+        if (command == null) {
             System.err.println("Command does not exist");
-            return null;
         }
+        return command;
+    }
+
+    /**
+     * Matches and returns a command given a String without reporting an
+     * error if there is none.
+     *
+     * @param commandName the name of the command to be retrieved
+     * @return the Command if the commandName is valid, null otherwise
+     */
+    static Command findCommand(String commandName) {
+        return COMMANDS_BY_NAME.get(commandName.trim().toLowerCase(Locale.ROOT));
     }
 }
@@ -1,12 +1,27 @@
 package view;
 
-import model.DeletedItem;
 import model.Item;
+import model.ItemFilter;
+import model.Metrics;
+import model.Money;
+import model.OperationStatistics;
 import model.Table;
+import model.TableStatistics;
+import presenter.CacheStatistics;
 import presenter.DatabasePresenter;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.stream.Stream;
 
 /**
  * DatabaseCLI is a command-line interface that allows users to interact with
@@ -66,15 +81,158 @@ public class DatabaseCLI {
 
     /**
      * Asks user for input and delegates to methods, printing output statement.
+     * The rows of READ are printed as they are read instead of once the
+     * whole table has been read.
      */
     public void promptUserForInput() {
         System.out.print("Enter command: ");
-        String initialInput = scanner.nextLine().toLowerCase().trim();
+        String line = scanner.nextLine();
+        String initialInput = normalizeInput(line);
         System.out.println();
-        String consoleOutput = processInput(initialInput);
 
-        System.out.println(consoleOutput);
-        System.out.println();
+        // System.out is not closed, only flushed
+        Writer console = new BufferedWriter(new OutputStreamWriter(System.out));
+        try {
+            String consoleOutput = processInput(parseInput(line), initialInput, console);
+            console.write(consoleOutput);
+            console.write(System.lineSeparator());
+            console.write(System.lineSeparator());
+            console.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs a script of commands without prompting, one command per line.
+     * Blank lines and lines starting with '#' are skipped and the script
+     * stops at the end of the input or at a QUIT command. The output of
+     * each command is written to the writer, followed by a summary of the
+     * script. QUIT is not executed, so the caller must still call quit().
+     * In a single transaction, the script stops at the first command that
+     * fails and every change it made is rolled back.
+     *
+     * @param reader the reader for the script
+     * @param writer the writer the output is written to
+     * @param singleTransaction true if the whole script should be committed as one transaction
+     * @return the number of commands executed, errors and time taken
+     */
+    public ScriptSummary runScript(BufferedReader reader, Writer writer, boolean singleTransaction) {
+        long startTime = System.nanoTime();
+        ScriptSummary summary;
+        if (singleTransaction) {
+            summary = executeScriptInTransaction(reader, writer);
+        } else {
+            summary = executeScript(reader, writer, false);
+        }
+        summary = new ScriptSummary(summary.commandCount(), summary.errorCount(),
+                System.nanoTime() - startTime, summary.rolledBack());
+
+        try {
+            writer.write(summary.toString());
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return summary;
+    }
+
+    /**
+     * Executes a script in one transaction, stopping at the first command
+     * that fails. The transaction is committed only if every command
+     * succeeded.
+     *
+     * @param reader the reader for the script
+     * @param writer the writer the output is written to
+     * @return the number of commands executed and errors, without the time taken
+     */
+    private ScriptSummary executeScriptInTransaction(BufferedReader reader, Writer writer) {
+        try {
+            return databasePresenter.runInTransaction(() -> {
+                ScriptSummary summary = executeScript(reader, writer, true);
+                if (summary.errorCount() > 0) {
+                    // leaving the transaction with an exception rolls it back
+                    throw new ScriptFailedException(summary);
+                }
+                return summary;
+            });
+        } catch (ScriptFailedException e) {
+            return new ScriptSummary(e.summary.commandCount(), e.summary.errorCount(), 0, true);
+        }
+    }
+
+    /**
+     * Executes each command of a script and writes its output.
+     *
+     * @param reader the reader for the script
+     * @param writer the writer the output is written to
+     * @param stopAtFirstError true if the script stops after the first command that fails
+     * @return the number of commands executed and errors, without the time taken
+     */
+    private ScriptSummary executeScript(BufferedReader reader, Writer writer, boolean stopAtFirstError) {
+        long commandCount = 0;
+        long errorCount = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String input = normalizeInput(line);
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+
+                ParsedCommand parsedCommand = parseInput(line);
+                if (parsedCommand != null && parsedCommand.getCommand() == Command.QUIT) {
+                    break;
+                }
+                String consoleOutput;
+                try {
+                    consoleOutput = processInput(parsedCommand, input, writer);
+                } catch (RuntimeException e) {
+                    consoleOutput = "ERROR: " + e.getMessage() + "\nError text: " + input;
+                }
+                commandCount++;
+                if (parsedCommand == null || consoleOutput.startsWith("ERROR")) {
+                    errorCount++;
+                }
+
+                writer.write(consoleOutput);
+                writer.write('\n');
+                if (stopAtFirstError && errorCount > 0) {
+                    break;
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new ScriptSummary(commandCount, errorCount, 0, false);
+    }
+
+    /**
+     * Normalizes a line of input before it is matched to a Command.
+     *
+     * @param input a line of input
+     * @return the line in lowercase without surrounding whitespace
+     */
+    private static String normalizeInput(String input) {
+        return input.toLowerCase().trim();
+    }
+
+    /**
+     * Matches a line of input to a Command after normalizing it. The file
+     * of METRICS EXPORT is taken from the line as it was entered, since
+     * paths are case-sensitive.
+     *
+     * @param line a line of input
+     * @return the parsed command if the line matches a Command, null otherwise
+     */
+    private ParsedCommand parseInput(String line) {
+        ParsedCommand parsedCommand = inputMatcher.parse(normalizeInput(line));
+        if (parsedCommand != null && parsedCommand.getCommand() == Command.METRICS) {
+            return inputMatcher.parse(line.trim());
+        }
+        return parsedCommand;
     }
 
     /**
@@ -84,24 +242,73 @@ public class DatabaseCLI {
      * @return output message if input is valid, error message otherwise
      */
     public String processInput(String userInput) {
-        Matcher matcher = inputMatcher.matchInputToCommandRegex(userInput);
-        String matcherError = inputMatcher.validateMatcher(matcher);
-        if (!matcherError.equals("")) {
-            return matcherError + "\nError text: " + userInput;
+        StringWriter output = new StringWriter();
+        String consoleOutput = processInput(userInput, output);
+        return output + consoleOutput;
+    }
+
+    /**
+     * Processes an input, matching and executing it. The rows of READ are
+     * written to the output as they are read; the rest of the output is
+     * returned.
+     *
+     * @param userInput the user's input
+     * @param output the writer the rows of READ are written to
+     * @return output message if input is valid, error message otherwise
+     */
+    public String processInput(String userInput, Writer output) {
+        return processInput(inputMatcher.parse(userInput), userInput, output);
+    }
+
+    /**
+     * Executes an input that has already been matched.
+     *
+     * @param parsedCommand the matched input, null if it did not match a Command
+     * @param userInput the user's input
+     * @param output the writer the rows of READ are written to
+     * @return output message if input is valid, error message otherwise
+     */
+    private String processInput(ParsedCommand parsedCommand, String userInput, Writer output) {
+        long startTime = System.nanoTime();
+        String consoleOutput = null;
+        try {
+            if (parsedCommand == null) {
+                consoleOutput = inputMatcher.getBadInputMessage() + "\nError text: " + userInput;
+                return consoleOutput;
+            }
+            consoleOutput = executeInput(parsedCommand, output);
+            return consoleOutput;
+        } finally {
+            // input that does not match a Command is counted as a failed "invalid" command
+            boolean valid = parsedCommand != null && parsedCommand.getCommand() != null;
+            boolean failed = !valid || consoleOutput == null || consoleOutput.startsWith("ERROR");
+            databasePresenter.getMetrics().record(Metrics.Group.COMMAND,
+                    valid ? parsedCommand.getCommand().getName() : "invalid", System.nanoTime() - startTime, failed);
         }
-        String consoleOutput = executeInput(matcher);
-        return consoleOutput;
     }
 
     /**
      * Executes a Command given its associated SQL information.
      *
-     * @param commandMatcher contains the Command and the user's input
+     * @param parsedCommand contains the Command and its arguments
+     * @return a statement indicating the operation and its level of success
+     */
+    String executeInput(ParsedCommand parsedCommand) {
+        StringWriter output = new StringWriter();
+        String consoleOutput = executeInput(parsedCommand, output);
+        return output + consoleOutput;
+    }
+
+    /**
+     * Executes a Command given its associated SQL information, writing the
+     * rows of READ to the output.
+     *
+     * @param parsedCommand contains the Command and its arguments
+     * @param output the writer the rows of READ are written to
      * @return a statement indicating the operation and its level of success
      */
-    String executeInput(Matcher commandMatcher) {
-        String commandAsString = commandMatcher.group(1);
-        Command command = Command.getCommand(commandAsString);
+    private String executeInput(ParsedCommand parsedCommand, Writer output) {
+        Command command = parsedCommand.getCommand();
         if (command == null) {
             String errorMessage = "ERROR: Please enter a valid command. Enter '" +
                     Command.HELP.getName() + "' for a list of them.";
@@ -110,11 +317,16 @@ public class DatabaseCLI {
 
         String consoleOutput;
         switch (command) {
-            case CREATE -> consoleOutput = createItem(commandMatcher);
-            case READ -> consoleOutput = read(commandMatcher);
-            case UPDATE -> consoleOutput = updateItem(commandMatcher);
-            case DELETE -> consoleOutput = delete(commandMatcher);
-            case RESTORE -> consoleOutput = restore(commandMatcher);
+            case CREATE -> consoleOutput = createItem(parsedCommand);
+            case READ -> consoleOutput = read(parsedCommand, output);
+            case UPDATE -> consoleOutput = updateItem(parsedCommand);
+            case DELETE -> consoleOutput = delete(parsedCommand);
+            case RESTORE -> consoleOutput = restore(parsedCommand);
+            case FIND -> consoleOutput = find(parsedCommand);
+            case SEARCH -> consoleOutput = search(parsedCommand);
+            case STATS -> consoleOutput = stats(parsedCommand);
+            case CACHE -> consoleOutput = cache();
+            case METRICS -> consoleOutput = metrics(parsedCommand);
             case HELP -> consoleOutput = help();
             case TABLES -> consoleOutput = tables();
             case QUIT -> consoleOutput = quit();
@@ -124,68 +336,119 @@ public class DatabaseCLI {
     }
 
     /**
-     * Creates an Item and returns a String containing information about that item.
+     * Creates one or more Items and returns a String containing information
+     * about them. Several items are inserted together in one transaction.
      *
-     * @param matcher the matcher containing the user's command
-     * @return a String containing information about the completed item
+     * @param parsedCommand contains the new Item's name, price, and stock, and optionally more items separated by ';'
+     * @return a String containing information about the completed items
      */
-    public String createItem(Matcher matcher) {
-        Item item;
-        item = new Item(matcher);
-        databasePresenter.createItem(item);
+    public String createItem(ParsedCommand parsedCommand) {
+        Item item = new Item(-1, // not used
+                parsedCommand.getArgument(0),
+                parsedCommand.getArgument(1),
+                Integer.parseInt(parsedCommand.getArgument(2)));
+        String moreItems = parsedCommand.getArgument(3, "");
+        if (moreItems.isEmpty()) {
+            databasePresenter.createItem(item);
 
-        String values = String.join(", ", item.getValuesAsArray());
-        // get rid of invalid id
-        values = values.replace("-1, ", "");
-        return "Created item: " + values;
+            String values = String.join(", ", item.getValuesAsArray());
+            // get rid of invalid id
+            values = values.replace("-1, ", "");
+            return "Created item: " + values;
+        }
+
+        List<Item> items = new ArrayList<>();
+        items.add(item);
+        for (String itemValues : moreItems.split(";")) {
+            if (itemValues.isBlank()) {
+                continue;
+            }
+            String[] values = itemValues.trim().split(" ");
+            items.add(new Item(-1, values[0], values[1], Integer.parseInt(values[2])));
+        }
+        List<Item> createdItems = databasePresenter.createItems(items);
+
+        StringBuilder consoleOutput = new StringBuilder();
+        consoleOutput.append("Created ").append(createdItems.size()).append(" items:");
+        for (Item createdItem : createdItems) {
+            consoleOutput.append("\n").append(String.join(", ", createdItem.getValuesAsArray()));
+        }
+        return consoleOutput.toString();
     }
 
     /**
-     * Returns the contents of the specified table as a String.
+     * Returns the contents of the specified table as a String. If an id is
+     * provided with AFTER, only the items with a greater id are returned. If a
+     * LIMIT is provided, at most that many items are returned.
      *
-     * @param matcher contains the READ command and tableName to be read
+     * @param parsedCommand contains the tableName, optional afterId, optional limit and optional format
      * @return a String containing the contents of the table
      */
-    public String read(Matcher matcher) {
-        // matcher.group(1) is "read"
-        String tableName = matcher.group(2);
-        List<Item> items = databasePresenter.readFromTable(tableName);
-        if (items.isEmpty()) {
-            return "ERROR: " + tableName + " is empty.";
-        }
+    public String read(ParsedCommand parsedCommand) {
+        StringWriter output = new StringWriter();
+        String consoleOutput = read(parsedCommand, output);
+        return output + consoleOutput;
+    }
 
-        StringBuilder consoleOutput = new StringBuilder();
-        consoleOutput.append("Table ").append(tableName).append(" contains:\n");
+    /**
+     * Writes the contents of the specified table to the output one row at a
+     * time, as aligned columns unless a FORMAT is provided. If an id is
+     * provided with AFTER, only the items with a greater id are written. If a
+     * LIMIT is provided, at most that many items are written. Aligned
+     * columns are preceded by the name of the table and followed by the
+     * command for the next page if the page is full. CSV and JSON only
+     * contain the rows: without rows, CSV is only the header line and JSON
+     * is []. Only the aligned format returns an error when there are no rows.
+     *
+     * @param parsedCommand contains the tableName, optional afterId, optional limit and optional format
+     * @param output the writer the rows are written to
+     * @return the command for the next page or an error message, the rest of the output
+     */
+    public String read(ParsedCommand parsedCommand, Writer output) {
+        String tableName = parsedCommand.getArgument(0);
+        String afterId = parsedCommand.getArgument(1);
+        String limit = parsedCommand.getArgument(2);
+        ItemRenderer.Format format = ItemRenderer.Format.getFormat(parsedCommand.getArgument(3));
+        long firstIdExcluded = afterId == null ? Long.MIN_VALUE : Long.parseLong(afterId);
+        int maximumItems = limit == null ? -1 : Integer.parseInt(limit);
 
-        String[] attributeNames;
-        if (tableName.equals(Table.ITEMS.getName())) {
-            attributeNames = Item.getAttributeNamesAsArray();
-        } else {
-            attributeNames = DeletedItem.getAttributeNamesAsArray();
+        List<String> attributeNames = Table.getTable(tableName).getColumnNames();
+        ItemRenderer itemRenderer = new ItemRenderer(format, attributeNames, output);
+        int numberOfItems;
+        try (Stream<Item> items = databasePresenter.streamFromTable(tableName, firstIdExcluded, maximumItems)) {
+            Iterator<Item> iterator = items.iterator();
+            if (format == ItemRenderer.Format.ALIGNED) {
+                // LIMIT 0 only shows the column names
+                if (maximumItems != 0 && !iterator.hasNext()) {
+                    if (afterId != null) {
+                        return "ERROR: " + tableName + " has no items after id " + afterId + ".";
+                    }
+                    return "ERROR: " + tableName + " is empty.";
+                }
+                output.write("Table " + tableName + " contains:\n");
+            }
+            numberOfItems = itemRenderer.render(iterator, maximumItems);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
 
-        String bar = " | ";
-        String attributeNamesBarSeparated = String.join(bar, attributeNames);
-        consoleOutput.append(attributeNamesBarSeparated).append("\n");
-        for (Item item : items) {
-            String[] values = item.getValuesAsArray();
-            String valuesBarSeparated = String.join(bar, values);
-            consoleOutput.append(valuesBarSeparated).append("\n");
+        if (format == ItemRenderer.Format.ALIGNED && maximumItems > 0 && numberOfItems == maximumItems) {
+            return "Enter `READ " + tableName + " AFTER " + itemRenderer.getLastId() + " LIMIT " + maximumItems +
+                    "` for the next page.\n";
         }
-        return consoleOutput.toString();
+        return "";
     }
 
     /**
      * Updates an Item and returns a String indicating the level of success.
      *
-     * @param matcher the matcher containing the user's command
+     * @param parsedCommand contains the itemId and the comma-separated column-value pairs
      * @return a String indicating the completion success
      */
-    public String updateItem(Matcher matcher) {
-        // matcher.group(1) is "update"
-        String itemId = matcher.group(2);
-        String columnValuePair = matcher.group(3);
-        Item item = databasePresenter.updateItem(itemId, columnValuePair);
+    public String updateItem(ParsedCommand parsedCommand) {
+        String itemId = parsedCommand.getArgument(0);
+        String columnValuePairs = parsedCommand.getArgument(1);
+        Item item = databasePresenter.updateItem(itemId, columnValuePairs);
         if (item == null) {
             return "ERROR: Item " + itemId + " was not able to be updated.";
         }
@@ -196,16 +459,12 @@ public class DatabaseCLI {
     /**
      * Deletes an Item from a specified table.
      *
-     * @param matcher contains the user's command and table to be deleted
+     * @param parsedCommand contains the itemId and optional comment
      * @return a String indicating the deletion of the Item
      */
-    public String delete(Matcher matcher) {
-        // matcher.group(1) is "delete"
-        String itemId = matcher.group(2);
-        String comment = "";
-        if (matcher.groupCount() > 2) {
-            comment = Objects.requireNonNullElse(matcher.group(3), "");
-        }
+    public String delete(ParsedCommand parsedCommand) {
+        String itemId = parsedCommand.getArgument(0);
+        String comment = parsedCommand.getArgument(1, "");
 
         Item item = databasePresenter.deleteItem(itemId, comment);
         if (item == null) {
@@ -219,12 +478,11 @@ public class DatabaseCLI {
     /**
      * Restores a DeletedItem to its corresponding table.
      *
-     * @param matcher contains the user's command and itemId of the item to restore
+     * @param parsedCommand contains the itemId of the item to restore
      * @return a string indicating the completion of restoring the item
      */
-    public String restore(Matcher matcher) {
-        // matcher.group(1) is "restore"
-        String itemId = matcher.group(2);
+    public String restore(ParsedCommand parsedCommand) {
+        String itemId = parsedCommand.getArgument(0);
         Item restoredItem = databasePresenter.restoreItem(itemId);
 
         if (restoredItem == null) {
@@ -233,6 +491,195 @@ public class DatabaseCLI {
         return "Restored item: " + restoredItem;
     }
 
+    /**
+     * Returns the items of the items table that match a filter: an exact
+     * name, a name prefix, a price range, or stock below or above a
+     * threshold. If a LIMIT is provided, at most that many items are returned.
+     *
+     * @param parsedCommand contains the filter with its values and optional limit
+     * @return a String containing the matching items
+     */
+    public String find(ParsedCommand parsedCommand) {
+        String[] filterAndValues = parsedCommand.getArgument(0).split(" ");
+        String limit = parsedCommand.getArgument(1);
+        int maximumItems = limit == null ? -1 : Integer.parseInt(limit);
+
+        ItemFilter filter;
+        Object[] values;
+        switch (filterAndValues[0].toLowerCase()) {
+            case "name" -> {
+                filter = ItemFilter.NAME;
+                values = new Object[]{filterAndValues[1]};
+            }
+            case "prefix" -> {
+                filter = ItemFilter.NAME_PREFIX;
+                values = new Object[]{filterAndValues[1]};
+            }
+            case "price" -> {
+                filter = ItemFilter.PRICE_RANGE;
+                values = new Object[]{Money.parseCents(filterAndValues[1]), Money.parseCents(filterAndValues[2])};
+            }
+            default -> {
+                filter = filterAndValues[1].equalsIgnoreCase("below") ? ItemFilter.STOCK_BELOW : ItemFilter.STOCK_ABOVE;
+                values = new Object[]{Integer.parseInt(filterAndValues[2])};
+            }
+        }
+        List<Item> items = databasePresenter.findItems(filter, maximumItems, values);
+
+        StringBuilder consoleOutput = new StringBuilder();
+        consoleOutput.append("Found ").append(items.size()).append(" items in ").append(Table.ITEMS.getName()).append(":\n");
+        if (items.isEmpty()) {
+            return consoleOutput.toString();
+        }
+        String bar = " | ";
+        consoleOutput.append(String.join(bar, Table.ITEMS.getColumnNames())).append("\n");
+        for (Item item : items) {
+            consoleOutput.append(String.join(bar, item.getValuesAsArray())).append("\n");
+        }
+        return consoleOutput.toString();
+    }
+
+    /**
+     * Returns a page of the items of the items table whose names contain
+     * every search term, best matches first. Each term must be at least three
+     * characters long.
+     *
+     * @param parsedCommand contains the terms, optional page number and optional page size
+     * @return a String containing the matching items
+     */
+    public String search(ParsedCommand parsedCommand) {
+        String terms = parsedCommand.getArgument(0);
+        int page = Integer.parseInt(parsedCommand.getArgument(1, "1"));
+        int pageSize = Integer.parseInt(parsedCommand.getArgument(2,
+                String.valueOf(DatabasePresenter.DEFAULT_SEARCH_PAGE_SIZE)));
+        List<Item> items = databasePresenter.searchItems(terms, page, pageSize);
+
+        StringBuilder consoleOutput = new StringBuilder();
+        consoleOutput.append("Found ").append(items.size()).append(" items matching '").append(terms)
+                .append("' on page ").append(page).append(":\n");
+        if (items.isEmpty()) {
+            return consoleOutput.toString();
+        }
+        String bar = " | ";
+        consoleOutput.append(String.join(bar, Table.ITEMS.getColumnNames())).append("\n");
+        for (Item item : items) {
+            consoleOutput.append(String.join(bar, item.getValuesAsArray())).append("\n");
+        }
+        if (items.size() == pageSize) {
+            consoleOutput.append("Enter `SEARCH ").append(terms).append(" PAGE ").append(page + 1)
+                    .append(" LIMIT ").append(pageSize).append("` for the next page.\n");
+        }
+        return consoleOutput.toString();
+    }
+
+    /**
+     * Returns the aggregates of a table, such as its row count, total stock
+     * and inventory value.
+     *
+     * @param parsedCommand contains the tableName and optional low-stock threshold
+     * @return a String containing the statistics of the table
+     */
+    public String stats(ParsedCommand parsedCommand) {
+        String tableName = parsedCommand.getArgument(0);
+        String lowStockThreshold = parsedCommand.getArgument(1);
+        TableStatistics statistics;
+        if (lowStockThreshold == null) {
+            statistics = databasePresenter.getTableStatistics(tableName);
+        } else {
+            statistics = databasePresenter.getTableStatistics(tableName, Integer.parseInt(lowStockThreshold));
+        }
+        if (statistics == null) {
+            return "ERROR: " + tableName + " is not a table.";
+        }
+
+        return "Table " + tableName + " statistics:\n" +
+                "rows: " + statistics.rowCount() + "\n" +
+                "price (total / average / min / max): " +
+                String.join(" / ", Money.format(statistics.totalPrice()),
+                        Money.format(Math.round(statistics.averagePrice())),
+                        Money.format(statistics.minimumPrice()),
+                        Money.format(statistics.maximumPrice())) + "\n" +
+                "stock (total / average / min / max): " +
+                String.join(" / ", String.valueOf(statistics.totalStock()),
+                        String.format(Locale.US, "%.2f", statistics.averageStock()),
+                        String.valueOf(statistics.minimumStock()),
+                        String.valueOf(statistics.maximumStock())) + "\n" +
+                "inventory value: " + Money.format(statistics.inventoryValue()) + "\n" +
+                "items with stock below " + statistics.lowStockThreshold() + ": " + statistics.lowStockCount();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the item cache.
+     *
+     * @return a String containing the statistics of the item cache
+     */
+    public String cache() {
+        CacheStatistics statistics = databasePresenter.getCacheStatistics();
+        return "Item cache statistics:\n" +
+                "items: " + statistics.size() + " / " + statistics.capacity() + "\n" +
+                "hits: " + statistics.hits() + String.format(Locale.US, " (%.2f%%)", statistics.hitRate() * 100) + "\n" +
+                "misses: " + statistics.misses() + String.format(Locale.US, " (%.2f%%)", statistics.missRate() * 100) + "\n" +
+                "evictions: " + statistics.evictions();
+    }
+
+    /**
+     * Returns the count, errors and latency percentiles of each command and
+     * SQL operation, followed by the current value of each gauge. With
+     * EXPORT, the metrics are written to a file in the Prometheus text format
+     * instead.
+     *
+     * @param parsedCommand contains the optional path of the file to export to
+     * @return a String containing the metrics, or indicating the export's success
+     */
+    public String metrics(ParsedCommand parsedCommand) {
+        Metrics metrics = databasePresenter.getMetrics();
+        String exportFile = parsedCommand.getArgument(0);
+        if (exportFile != null) {
+            try (Writer writer = Files.newBufferedWriter(Path.of(exportFile), StandardCharsets.UTF_8)) {
+                metrics.writePrometheus(writer);
+            } catch (IOException | InvalidPathException e) {
+                return "ERROR: could not export metrics to " + exportFile + ": " + e.getMessage();
+            }
+            return "Exported metrics to " + exportFile;
+        }
+
+        StringBuilder consoleOutput = new StringBuilder();
+        consoleOutput.append("Command metrics:\n")
+                .append(formatStatistics("command", metrics.getStatistics(Metrics.Group.COMMAND)))
+                .append("SQL operation metrics:\n")
+                .append(formatStatistics("operation", metrics.getStatistics(Metrics.Group.SQL)));
+        Map<String, Long> gauges = metrics.getGauges();
+        if (!gauges.isEmpty()) {
+            consoleOutput.append("Gauges:\n");
+            gauges.forEach((name, value) -> consoleOutput.append(name).append(": ").append(value).append("\n"));
+        }
+        return consoleOutput.toString();
+    }
+
+    /**
+     * Formats the statistics of operations as rows separated by bars, with
+     * latencies in milliseconds.
+     *
+     * @param kind the kind of operation, used as the name of the first column
+     * @param statistics the statistics of each operation
+     * @return the statistics with a header row
+     */
+    private static String formatStatistics(String kind, List<OperationStatistics> statistics) {
+        String bar = " | ";
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(String.join(bar, kind, "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"))
+                .append("\n");
+        for (OperationStatistics operation : statistics) {
+            stringBuilder.append(String.join(bar, operation.name(),
+                    String.valueOf(operation.count()), String.valueOf(operation.errors()),
+                    String.format(Locale.US, "%.3f", operation.medianNanos() / 1_000_000.0),
+                    String.format(Locale.US, "%.3f", operation.p99Nanos() / 1_000_000.0),
+                    String.format(Locale.US, "%.3f", operation.p999Nanos() / 1_000_000.0),
+                    String.format(Locale.US, "%.3f", operation.maxNanos() / 1_000_000.0))).append("\n");
+        }
+        return stringBuilder.toString();
+    }
+
     /**
      * Returns a list of valid user commands.
      *
@@ -243,11 +690,20 @@ public class DatabaseCLI {
         stringBuilder.append("Omit the square brackets seen in all of the following commands:\n\n");
         String itemsEnding = " the table " + Table.ITEMS.getName();
 
-        stringBuilder.append("`CREATE [name] [dollar.cents] [stock]` - insert a row into").append(itemsEnding).append("\n");
-        stringBuilder.append("`READ [tableName]` - view the rows from one of the following ").append(tables()).append("\n");
-        stringBuilder.append("`UPDATE [id] [columnName] = [value]` - update a value corresponding to a column name in").append(itemsEnding).append(". Text values must be quoted like 'this'\n");
+        stringBuilder.append("`CREATE [name] [dollar.cents] [stock]; [name] [dollar.cents] [stock]...` - insert one or more rows into").append(itemsEnding).append("\n");
+        stringBuilder.append("`READ [tableName] [optional AFTER id] [optional LIMIT count] [optional FORMAT aligned|csv|json]` - view the rows from one of the following ").append(tables())
+                .append(". With AFTER, only rows with a greater id are shown. With LIMIT, at most that many rows are shown. The rows are shown as aligned columns unless FORMAT is csv or json\n");
+        stringBuilder.append("`UPDATE [id] [columnName] = [value], [columnName] = [value]...` - update the values corresponding to one or more column names in").append(itemsEnding).append(". Text values must be quoted like 'this'\n");
         stringBuilder.append("`DELETE [id] [optionalComment]` - delete a row in").append(itemsEnding).append(" while providing an optional comment\n");
         stringBuilder.append("`RESTORE [id]` - restores a row with the provided id to its corresponding table\n");
+        stringBuilder.append("`FIND [NAME name | PREFIX prefix | PRICE min max | STOCK BELOW count | STOCK ABOVE count] [optional LIMIT count]` - view the rows of").append(itemsEnding)
+                .append(" with the name, a name starting with the prefix, a price from min to max, or stock below or above the count\n");
+        stringBuilder.append("`SEARCH [terms] [optional PAGE number] [optional LIMIT count]` - view the rows of").append(itemsEnding)
+                .append(" whose names contain every term of at least three characters, best matches first, ").append(DatabasePresenter.DEFAULT_SEARCH_PAGE_SIZE)
+                .append(" rows per page unless LIMIT is provided\n");
+        stringBuilder.append("`STATS [tableName] [optionalLowStockThreshold]` - view the row count, price and stock totals, inventory value and number of low-stock rows of a table\n");
+        stringBuilder.append("`CACHE` - view the hit rate, miss rate and evictions of the cache of recently used rows of").append(itemsEnding).append("\n");
+        stringBuilder.append("`METRICS [optional EXPORT file]` - view the count, errors and latency percentiles of each command and SQL operation. With EXPORT, write them to the file in the Prometheus text format\n");
         stringBuilder.append("`HELP` - view the list of valid commands\n");
         stringBuilder.append("`TABLES` - view the list of tables\n");
         stringBuilder.append("`QUIT` - exit the command-line interface");
@@ -275,4 +731,25 @@ public class DatabaseCLI {
         scanner.close();
         return "Exiting program.";
     }
+
+    /**
+     * ScriptFailedException rolls back the transaction of a script whose
+     * command failed, carrying the script's summary out of the transaction.
+     */
+    private static class ScriptFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /** only read within the program, so it is not serialized */
+        private final transient ScriptSummary summary;
+
+        /**
+         * Constructor for ScriptFailedException.
+         *
+         * @param summary the number of commands executed and errors
+         */
+        ScriptFailedException(ScriptSummary summary) {
+            super("A command of the script failed.");
+            this.summary = summary;
+        }
+    }
 }
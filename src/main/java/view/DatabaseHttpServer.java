@@ -0,0 +1,552 @@
+package view;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Item;
+import model.Money;
+import model.Table;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import presenter.DatabasePresenter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * DatabaseHttpServer is an HTTP interface that allows other services to
+ * interact with the Database through the DatabasePresenter. It is an
+ * alternative to DatabaseCLI. Items are sent and received as JSON objects in
+ * the format of the items.json file.
+ *
+ * <ul>
+ *     <li>GET /[tableName]?after=[id]&amp;limit=[count] - view the rows of a table, both parameters are optional</li>
+ *     <li>GET /[tableName]/[id] - view one row of a table</li>
+ *     <li>POST /items - insert the item, or array of items, in the request body</li>
+ *     <li>PATCH /items/[id] - update the columns in the request body</li>
+ *     <li>DELETE /items/[id]?comment=[comment] - delete a row with an optional comment</li>
+ *     <li>POST /deleted_items/[id]/restore - restore a row to its corresponding table</li>
+ *     <li>GET /metrics - view the metrics of the commands and SQL operations in the Prometheus text format</li>
+ * </ul>
+ *
+ * @author Liam Tripp
+ */
+public class DatabaseHttpServer {
+
+    /** how long a request waits for one of the concurrent request permits */
+    private final static int PERMIT_TIMEOUT_MILLIS = 1000;
+    private final static String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private final static Pattern ID_PATTERN = Pattern.compile("\\d+");
+
+    private final DatabasePresenter databasePresenter;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final Semaphore requestPermits;
+    private final boolean keepAlive;
+    private final PrintStream latencyLog;
+
+    /**
+     * Constructor for DatabaseHttpServer. Idle connections are kept open for
+     * the JDK's sun.net.httpserver.idleInterval, which applies to every server
+     * in the program, so DatabaseBackend sets it once before starting the
+     * server.
+     *
+     * @param databasePresenter the presenter the requests are executed through
+     * @param port the port to listen on, 0 for any free port
+     * @param maxConcurrentRequests the number of requests executed at the same time
+     * @param keepAliveSeconds how long an idle connection is kept open, 0 to close connections after each response
+     * @param latencyLog the stream each request and its latency is logged to, null for no log
+     */
+    public DatabaseHttpServer(DatabasePresenter databasePresenter, int port, int maxConcurrentRequests,
+                              int keepAliveSeconds, PrintStream latencyLog) {
+        this.databasePresenter = databasePresenter;
+        this.latencyLog = latencyLog;
+        keepAlive = keepAliveSeconds > 0;
+        requestPermits = new Semaphore(maxConcurrentRequests);
+        executor = createExecutor(maxConcurrentRequests);
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/", this::handle);
+    }
+
+    /**
+     * Returns an executor that runs each request on its own virtual thread.
+     * Virtual threads require JDK 21, so on older JDKs the requests run on a
+     * pool with one thread per concurrent request instead.
+     *
+     * @param maxConcurrentRequests the number of requests executed at the same time
+     * @return the executor for the requests
+     */
+    private static ExecutorService createExecutor(int maxConcurrentRequests) {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(1, maxConcurrentRequests));
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Stops accepting requests and waits for the requests in progress to
+     * finish.
+     */
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(PERMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Executes a request once a permit is available and logs its latency.
+     * Requests that fail validation receive 400, while any other failure is
+     * a server error and receives 500.
+     *
+     * @param exchange the request and its response
+     */
+    private void handle(HttpExchange exchange) {
+        long startTime = System.nanoTime();
+        int status;
+        try {
+            if (requestPermits.tryAcquire(PERMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                try {
+                    status = route(exchange);
+                } finally {
+                    requestPermits.release();
+                }
+            } else {
+                status = sendError(exchange, 503, "Too many concurrent requests.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = sendError(exchange, 503, "The server is stopping.");
+        } catch (InvalidRequestException e) {
+            status = sendError(exchange, 400, "Invalid request: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            status = sendError(exchange, 500, "ERROR: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+
+        if (latencyLog != null) {
+            double latencyMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+            latencyLog.println(String.format(Locale.US, "%s %s %d %.3f ms", exchange.getRequestMethod(),
+                    exchange.getRequestURI(), status, latencyMillis));
+        }
+    }
+
+    /**
+     * Executes a request according to its path and method.
+     *
+     * @param exchange the request and its response
+     * @return the status code of the response
+     * @throws IOException if the request cannot be read or the response cannot be sent
+     */
+    private int route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        // the path begins with '/', so the first segment is empty
+        String[] segments = exchange.getRequestURI().getPath().split("/");
+        if (exchange.getRequestURI().getPath().equals(MetricsHttpServer.METRICS_PATH) && method.equals("GET")) {
+            return MetricsHttpServer.sendMetrics(exchange, databasePresenter.getMetrics());
+        }
+        Table table = segments.length > 1 ? Table.getTable(segments[1]) : null;
+        if (table == null || segments.length > 4) {
+            return sendError(exchange, 404, "Unknown path. The tables are " + tableNames() + ".");
+        }
+        if (segments.length > 2 && !isValidId(segments[2])) {
+            return sendError(exchange, 404, "Invalid id: " + segments[2]);
+        }
+
+        if (segments.length == 2) {
+            if (method.equals("GET")) {
+                return read(exchange, table);
+            } else if (method.equals("POST") && table == Table.ITEMS) {
+                return createItem(exchange);
+            }
+        } else if (segments.length == 3) {
+            String itemId = segments[2];
+            if (method.equals("GET")) {
+                return sendItem(exchange, databasePresenter.readItem(table.getName(), itemId), itemId);
+            } else if (method.equals("PATCH") && table == Table.ITEMS) {
+                Map<String, Object> columnValues = getColumnValues(readJSONObject(exchange));
+                if (columnValues.isEmpty()) {
+                    return sendError(exchange, 400, "No columns to update.");
+                }
+                return sendItem(exchange, databasePresenter.updateItem(itemId, columnValues), itemId);
+            } else if (method.equals("DELETE") && table == Table.ITEMS) {
+                String comment = getQueryParameters(exchange).getOrDefault("comment", "");
+                return sendItem(exchange, databasePresenter.deleteItem(itemId, comment), itemId);
+            }
+        } else if (segments[3].equals("restore") && method.equals("POST") && table == Table.DELETED_ITEMS) {
+            String itemId = segments[2];
+            return sendItem(exchange, databasePresenter.restoreItem(itemId), itemId);
+        }
+        return sendError(exchange, 405, method + " is not supported for " + exchange.getRequestURI().getPath());
+    }
+
+    /**
+     * Inserts the item in the request body into the items table. If the
+     * body is an array of items, they are inserted in one transaction.
+     *
+     * @param exchange the request and its response
+     * @return the status code of the response
+     * @throws IOException if the request cannot be read or the response cannot be sent
+     * @throws InvalidRequestException if the body is not an item or an array of items
+     */
+    @SuppressWarnings("unchecked")
+    private int createItem(HttpExchange exchange) throws IOException {
+        Object json = readJSON(exchange);
+        if (json instanceof JSONArray jsonItems) {
+            List<Item> items = new ArrayList<>(jsonItems.size());
+            for (Object jsonItem : jsonItems) {
+                if (!(jsonItem instanceof JSONObject jsonObject)) {
+                    throw new InvalidRequestException("each element of the array must be a JSON object");
+                }
+                items.add(toItem(jsonObject));
+            }
+            JSONArray createdItems = new JSONArray();
+            for (Item createdItem : databasePresenter.createItems(items)) {
+                createdItems.add(createdItem.toJSONObject());
+            }
+            return sendJSON(exchange, 201, createdItems.toJSONString());
+        }
+
+        if (!(json instanceof JSONObject jsonObject)) {
+            throw new InvalidRequestException("the request body must be a JSON object or array");
+        }
+        Item createdItem = databasePresenter.createItem(toItem(jsonObject));
+        return sendJSON(exchange, 201, createdItem.toJSONObject().toJSONString());
+    }
+
+    /**
+     * Converts a JSON object with a name, price, and stock into an Item.
+     *
+     * @param jsonItem the item as a JSON object
+     * @return the item, without an id
+     * @throws InvalidRequestException if a column is missing or invalid
+     */
+    private static Item toItem(JSONObject jsonItem) {
+        Map<String, Object> columnValues = getColumnValues(jsonItem);
+        for (String column : Item.getAttributeNamesExceptId().split(", ")) {
+            if (!columnValues.containsKey(column)) {
+                throw new InvalidRequestException("The item has no " + column + ".");
+            }
+        }
+        return new Item(-1, // not used
+                (String) columnValues.get("name"),
+                (Long) columnValues.get("price"),
+                (Integer) columnValues.get("stock"));
+    }
+
+    /**
+     * Writes the rows of a table as a JSON array. The rows are written as they
+     * are read, so the response is sent in chunks.
+     *
+     * @param exchange the request and its response
+     * @param table the table being read
+     * @return the status code of the response
+     * @throws IOException if the response cannot be sent
+     * @throws InvalidRequestException if a parameter is not an integer
+     */
+    private int read(HttpExchange exchange, Table table) throws IOException {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        String afterId = parameters.get("after");
+        String limit = parameters.get("limit");
+        long firstIdExcluded;
+        int maximumItems;
+        try {
+            firstIdExcluded = afterId == null ? Long.MIN_VALUE : Long.parseLong(afterId);
+            maximumItems = limit == null ? -1 : Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("after and limit must be integers");
+        }
+
+        try (Stream<Item> items = databasePresenter.streamFromTable(table.getName(), firstIdExcluded, maximumItems)) {
+            setResponseHeaders(exchange);
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                writer.write('[');
+                Iterator<Item> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next().toJSONObject().toJSONString());
+                    if (iterator.hasNext()) {
+                        writer.write(',');
+                    }
+                }
+                writer.write(']');
+            }
+        }
+        return 200;
+    }
+
+    /**
+     * Converts the columns of a JSON object into a map of column names to
+     * values that can be bound to an SQL statement. Prices are converted from
+     * dollars to cents.
+     *
+     * @param jsonObject a JSON object containing any of name, price, and stock
+     * @return the column names mapped to their values
+     * @throws InvalidRequestException if the object contains another column or an invalid value
+     */
+    private static Map<String, Object> getColumnValues(JSONObject jsonObject) {
+        Map<String, Object> columnValues = new LinkedHashMap<>();
+        for (Object key : jsonObject.keySet()) {
+            Object value = jsonObject.get(key);
+            if (value == null) {
+                throw new InvalidRequestException("Column " + key + " cannot be null.");
+            }
+            switch (String.valueOf(key)) {
+                case "name" -> {
+                    if (!(value instanceof String name) || name.isBlank()) {
+                        throw new InvalidRequestException("Column name must be a non-blank string.");
+                    }
+                    columnValues.put("name", name);
+                }
+                case "price" -> columnValues.put("price", parsePrice(value));
+                case "stock" -> {
+                    if (!(value instanceof Long stock) || stock < Integer.MIN_VALUE || stock > Integer.MAX_VALUE) {
+                        throw new InvalidRequestException("Column stock must be an integer.");
+                    }
+                    columnValues.put("stock", stock.intValue());
+                }
+                default -> throw new InvalidRequestException("Column " + key + " cannot be set.");
+            }
+        }
+        return columnValues;
+    }
+
+    /**
+     * Converts a price from a JSON string in dollars to cents.
+     *
+     * @param value the price as a JSON value
+     * @return the price in cents
+     * @throws InvalidRequestException if the price is not a string in the format dollars.cents
+     */
+    private static long parsePrice(Object value) {
+        if (!(value instanceof String price)) {
+            throw new InvalidRequestException("Column price must be a string such as \"1.50\".");
+        }
+        try {
+            return Money.parseCents(price);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether a path segment is an id, a number that fits in a long.
+     *
+     * @param segment the segment of the path
+     * @return true if the segment is an id, false otherwise
+     */
+    private static boolean isValidId(String segment) {
+        if (!ID_PATTERN.matcher(segment).matches()) {
+            return false;
+        }
+        try {
+            Long.parseLong(segment);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the request body as a JSON object.
+     *
+     * @param exchange the request and its response
+     * @return the request body as a JSON object
+     * @throws IOException if the request body cannot be read
+     * @throws InvalidRequestException if the request body is not a JSON object
+     */
+    private static JSONObject readJSONObject(HttpExchange exchange) throws IOException {
+        if (!(readJSON(exchange) instanceof JSONObject jsonObject)) {
+            throw new InvalidRequestException("the request body must be a JSON object");
+        }
+        return jsonObject;
+    }
+
+    /**
+     * Reads the request body as JSON.
+     *
+     * @param exchange the request and its response
+     * @return the request body as a JSON object, array or value
+     * @throws IOException if the request body cannot be read
+     * @throws InvalidRequestException if the request body is not valid JSON
+     */
+    private static Object readJSON(HttpExchange exchange) throws IOException {
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            return new JSONParser().parse(reader);
+        } catch (ParseException e) {
+            throw new InvalidRequestException("the request body is not valid JSON");
+        }
+    }
+
+    /**
+     * Returns the decoded parameters of the request's query string.
+     *
+     * @param exchange the request and its response
+     * @return the parameter names mapped to their values
+     */
+    private static Map<String, String> getQueryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            String[] nameAndValue = parameter.split("=", 2);
+            String value = nameAndValue.length == 2 ? nameAndValue[1] : "";
+            parameters.put(URLDecoder.decode(nameAndValue[0], StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Sends an item as a JSON object, or an error if there is no item.
+     *
+     * @param exchange the request and its response
+     * @param item the item to send, null if it does not exist
+     * @param itemId the id of the item
+     * @return the status code of the response
+     * @throws IOException if the response cannot be sent
+     */
+    private int sendItem(HttpExchange exchange, Item item, String itemId) throws IOException {
+        if (item == null) {
+            return sendError(exchange, 404, "Item " + itemId + " does not exist.");
+        }
+        return sendJSON(exchange, 200, item.toJSONObject().toJSONString());
+    }
+
+    /**
+     * Sends an error message as a JSON object. Nothing is sent if the
+     * response has already begun.
+     *
+     * @param exchange the request and its response
+     * @param status the status code of the response
+     * @param message the error message
+     * @return the status code of the response
+     */
+    @SuppressWarnings("unchecked")
+    private int sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            return exchange.getResponseCode();
+        }
+        JSONObject error = new JSONObject();
+        error.put("error", message);
+        try {
+            return sendJSON(exchange, status, error.toJSONString());
+        } catch (IOException e) {
+            // the client is no longer connected
+            return status;
+        }
+    }
+
+    /**
+     * Sends a JSON response with a fixed length, which allows the connection
+     * to be kept alive.
+     *
+     * @param exchange the request and its response
+     * @param status the status code of the response
+     * @param json the body of the response
+     * @return the status code of the response
+     * @throws IOException if the response cannot be sent
+     */
+    private int sendJSON(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        setResponseHeaders(exchange);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+        return status;
+    }
+
+    /**
+     * Sets the headers shared by every response.
+     *
+     * @param exchange the request and its response
+     */
+    private void setResponseHeaders(HttpExchange exchange) {
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        if (!keepAlive) {
+            exchange.getResponseHeaders().set("Connection", "close");
+        }
+    }
+
+    /**
+     * Returns the names of the tables.
+     *
+     * @return the names of the tables separated by commas
+     */
+    private static String tableNames() {
+        return String.join(", ", Table.ITEMS.getName(), Table.DELETED_ITEMS.getName());
+    }
+
+    /**
+     * InvalidRequestException is thrown when a request fails validation, so
+     * that it receives 400 instead of 500.
+     */
+    private static class InvalidRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor for InvalidRequestException.
+         *
+         * @param message why the request is invalid
+         */
+        InvalidRequestException(String message) {
+            super(message);
+        }
+    }
+}
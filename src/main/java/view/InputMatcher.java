@@ -5,12 +5,31 @@ import java.util.regex.Pattern;
 
 /**
  * InputMatcher is a helper class for DatabaseCLI that provides methods to read
- * in user inputs.
+ * in user inputs. Inputs are routed on their first word to the single Command
+ * with that name, whose Pattern is compiled only once.
  *
  * @author Liam Tripp
  */
 public class InputMatcher {
 
+    /**
+     * Matches an input to its Command and returns the parsed command.
+     *
+     * @param userInput the user's input
+     * @return the parsed command if the input matches a Command, null otherwise
+     */
+    public ParsedCommand parse(String userInput) {
+        Command command = getCommandForInput(userInput);
+        if (command == null) {
+            return null;
+        }
+        Matcher matcher = command.getPattern().matcher(userInput);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return ParsedCommand.fromMatcher(command, matcher);
+    }
+
     /**
      * Matches an input to one of the Command's Regexes.
      *
@@ -18,15 +37,24 @@ public class InputMatcher {
      * @return a matcher matching the user's input, null otherwise
      */
     public Matcher matchInputToCommandRegex(String userInput) {
-        Matcher matcher = null;
-        for (Command command : Command.values()) {
-            matcher = getMatcher(command.getRegex(), userInput);
-            if (matcher.matches()) {
-                matcher.reset();
-                return matcher;
-            }
+        Command command = getCommandForInput(userInput);
+        if (command == null) {
+            return null;
         }
-        return matcher;
+        Matcher matcher = command.getPattern().matcher(userInput);
+        return matcher.matches() ? matcher : null;
+    }
+
+    /**
+     * Returns the Command named by the first word of an input.
+     *
+     * @param userInput the user's input
+     * @return the Command named by the first word, null if there is none
+     */
+    private Command getCommandForInput(String userInput) {
+        int endOfFirstWord = userInput.indexOf(' ');
+        String firstWord = endOfFirstWord == -1 ? userInput : userInput.substring(0, endOfFirstWord);
+        return Command.findCommand(firstWord);
     }
 
     /**
@@ -49,14 +77,19 @@ public class InputMatcher {
      * @return a String with an error statement if there is an error, "" otherwise
      */
     public String validateMatcher(Matcher matcher) {
-        if (!matcher.matches()) {
-            return "Bad input formatting. Enter '" + Command.HELP.getName() +
-                    "' for options.";
-        }
-        matcher.reset();
-        if (!matcher.find()) {
-            return "Matcher.find() fail.";
+        if (matcher == null || !matcher.matches()) {
+            return getBadInputMessage();
         }
         return "";
     }
+
+    /**
+     * Returns the error message for an input that does not match any Command.
+     *
+     * @return the error message for badly formatted input
+     */
+    public String getBadInputMessage() {
+        return "Bad input formatting. Enter '" + Command.HELP.getName() +
+                "' for options.";
+    }
 }
@@ -0,0 +1,343 @@
+package view;
+
+import model.DeletedItem;
+import model.Item;
+import org.json.simple.JSONValue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ItemRenderer writes rows of a table to a Writer as they are read, so that
+ * only the row being written is held in memory, however large the table is.
+ * Rows can be written as aligned columns, as CSV or as a JSON array.
+ *
+ * Aligned columns are as wide as their widest value among the first rows.
+ * Only those rows are held in memory before writing; a later value that is
+ * wider than its column shifts the rest of its row to the right.
+ *
+ * @author Liam Tripp
+ */
+public class ItemRenderer {
+
+    /** the number of rows the widths of aligned columns are computed from */
+    final static int ALIGNMENT_ROWS = 256;
+    private final static String COLUMN_SEPARATOR = " | ";
+
+    private final Format format;
+    private final List<String> columnNames;
+    private final Writer writer;
+    private int lastId;
+
+    /**
+     * Constructor for ItemRenderer.
+     *
+     * @param format how the rows are written
+     * @param columnNames the names of the columns of the table, in order
+     * @param writer the writer the rows are written to
+     */
+    public ItemRenderer(Format format, List<String> columnNames, Writer writer) {
+        this.format = format;
+        this.columnNames = columnNames;
+        this.writer = writer;
+        lastId = 0;
+    }
+
+    /**
+     * Writes the column names and the rows of the items, advancing the
+     * iterator one row at a time. The writer is not flushed.
+     *
+     * @param items the items to write
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return the number of rows written
+     * @throws IOException if the writer fails
+     */
+    public int render(Iterator<? extends Item> items, int limit) throws IOException {
+        return switch (format) {
+            case ALIGNED -> renderAligned(items, limit);
+            case CSV -> renderCSV(items, limit);
+            case JSON -> renderJSON(items, limit);
+        };
+    }
+
+    /**
+     * Returns the id of the last row written.
+     *
+     * @return the id of the last row, 0 if no row has been written
+     */
+    public int getLastId() {
+        return lastId;
+    }
+
+    /**
+     * Returns the next item to write and remembers its id.
+     *
+     * @param items the items that have not been written
+     * @return the next item
+     */
+    private Item nextRow(Iterator<? extends Item> items) {
+        Item item = items.next();
+        lastId = item.getId();
+        return item;
+    }
+
+    /**
+     * Returns whether another row can be written.
+     *
+     * @param items the items that have not been written
+     * @param rowsWritten the number of rows written so far
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return true if there is another item and the limit has not been reached
+     */
+    private static boolean hasNextRow(Iterator<? extends Item> items, int rowsWritten, int limit) {
+        return (limit < 0 || rowsWritten < limit) && items.hasNext();
+    }
+
+    /**
+     * Writes the rows as columns separated by bars and padded to the width
+     * of their widest value among the first ALIGNMENT_ROWS rows.
+     *
+     * @param items the items to write
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return the number of rows written
+     * @throws IOException if the writer fails
+     */
+    private int renderAligned(Iterator<? extends Item> items, int limit) throws IOException {
+        int[] widths = new int[columnNames.size()];
+        for (int column = 0; column < widths.length; column++) {
+            widths[column] = columnNames.get(column).length();
+        }
+        List<String[]> firstRows = new ArrayList<>();
+        while (firstRows.size() < ALIGNMENT_ROWS && hasNextRow(items, firstRows.size(), limit)) {
+            String[] values = getValues(nextRow(items));
+            for (int column = 0; column < widths.length; column++) {
+                widths[column] = Math.max(widths[column], values[column].length());
+            }
+            firstRows.add(values);
+        }
+
+        writeAlignedRow(columnNames.toArray(new String[0]), widths);
+        for (String[] values : firstRows) {
+            writeAlignedRow(values, widths);
+        }
+        int rowsWritten = firstRows.size();
+        firstRows.clear();
+        while (hasNextRow(items, rowsWritten, limit)) {
+            Item item = nextRow(items);
+            for (int column = 0; column < widths.length; column++) {
+                writeAlignedValue(getValue(item, columnNames.get(column)), column, widths);
+            }
+            writer.write('\n');
+            rowsWritten++;
+        }
+        return rowsWritten;
+    }
+
+    /**
+     * Writes a row of aligned columns.
+     *
+     * @param values the values of the row
+     * @param widths the widths of the columns
+     * @throws IOException if the writer fails
+     */
+    private void writeAlignedRow(String[] values, int[] widths) throws IOException {
+        for (int column = 0; column < widths.length; column++) {
+            writeAlignedValue(values[column], column, widths);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a value padded to the width of its column. The last column is
+     * not padded, so that rows do not end with spaces.
+     *
+     * @param value the value to write
+     * @param column the index of the value's column
+     * @param widths the widths of the columns
+     * @throws IOException if the writer fails
+     */
+    private void writeAlignedValue(String value, int column, int[] widths) throws IOException {
+        if (column > 0) {
+            writer.write(COLUMN_SEPARATOR);
+        }
+        writer.write(value);
+        if (column < widths.length - 1) {
+            for (int padding = value.length(); padding < widths[column]; padding++) {
+                writer.write(' ');
+            }
+        }
+    }
+
+    /**
+     * Writes the rows as comma-separated values, with the column names as
+     * the first line. Values containing commas, quotes or line breaks are
+     * quoted.
+     *
+     * @param items the items to write
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return the number of rows written
+     * @throws IOException if the writer fails
+     */
+    private int renderCSV(Iterator<? extends Item> items, int limit) throws IOException {
+        for (int column = 0; column < columnNames.size(); column++) {
+            if (column > 0) {
+                writer.write(',');
+            }
+            writeCSVValue(columnNames.get(column));
+        }
+        writer.write('\n');
+
+        int rowsWritten = 0;
+        while (hasNextRow(items, rowsWritten, limit)) {
+            Item item = nextRow(items);
+            for (int column = 0; column < columnNames.size(); column++) {
+                if (column > 0) {
+                    writer.write(',');
+                }
+                writeCSVValue(getValue(item, columnNames.get(column)));
+            }
+            writer.write('\n');
+            rowsWritten++;
+        }
+        return rowsWritten;
+    }
+
+    /**
+     * Writes a CSV value, quoting it and doubling its quotes if needed.
+     *
+     * @param value the value to write
+     * @throws IOException if the writer fails
+     */
+    private void writeCSVValue(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 &&
+                value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Writes the rows as a JSON array with one object per line, in the
+     * format of the items.json file. The id and stock are numbers and the
+     * other values are Strings.
+     *
+     * @param items the items to write
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return the number of rows written
+     * @throws IOException if the writer fails
+     */
+    private int renderJSON(Iterator<? extends Item> items, int limit) throws IOException {
+        writer.write('[');
+        int rowsWritten = 0;
+        while (hasNextRow(items, rowsWritten, limit)) {
+            Item item = nextRow(items);
+            writer.write(rowsWritten == 0 ? "\n  {" : ",\n  {");
+            for (int column = 0; column < columnNames.size(); column++) {
+                String columnName = columnNames.get(column);
+                if (column > 0) {
+                    writer.write(", ");
+                }
+                writer.write('"');
+                writer.write(JSONValue.escape(columnName));
+                writer.write("\": ");
+                String value = getValue(item, columnName);
+                if (isNumeric(columnName)) {
+                    writer.write(value);
+                } else {
+                    writer.write('"');
+                    writer.write(JSONValue.escape(value));
+                    writer.write('"');
+                }
+            }
+            writer.write('}');
+            rowsWritten++;
+        }
+        writer.write(rowsWritten == 0 ? "]\n" : "\n]\n");
+        return rowsWritten;
+    }
+
+    /**
+     * Returns whether the values of a column are written as JSON numbers.
+     *
+     * @param columnName the name of the column
+     * @return true if the column is the id or stock, false otherwise
+     */
+    private static boolean isNumeric(String columnName) {
+        return columnName.equals("id") || columnName.equals("stock");
+    }
+
+    /**
+     * Returns the values of an item in the order of the columns.
+     *
+     * @param item the item
+     * @return the values of the item as Strings
+     */
+    private String[] getValues(Item item) {
+        String[] values = new String[columnNames.size()];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = getValue(item, columnNames.get(column));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the value of one column of an item. The price is in the format
+     * dollars.cents and an item that was not deleted has no comment.
+     *
+     * @param item the item
+     * @param columnName the name of the column
+     * @return the value as a String
+     */
+    static String getValue(Item item, String columnName) {
+        return switch (columnName) {
+            case "id" -> String.valueOf(item.getId());
+            case "name" -> item.getName();
+            case "price" -> item.getPriceAsString();
+            case "stock" -> String.valueOf(item.getStock());
+            case "comment" -> item instanceof DeletedItem deletedItem ? deletedItem.getComment() : "";
+            default -> throw new IllegalArgumentException("Unknown column: " + columnName);
+        };
+    }
+
+    /**
+     * Format is how the rows are written.
+     */
+    public enum Format {
+        /** columns padded to the same width and separated by bars */
+        ALIGNED,
+        /** comma-separated values with a header line */
+        CSV,
+        /** a JSON array of objects */
+        JSON;
+
+        /**
+         * Returns the name of the Format as it is entered in a command.
+         *
+         * @return the name in lowercase
+         */
+        public String getName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Returns the Format with the given name, ignoring case.
+         *
+         * @param name the name of the Format, null for the default
+         * @return the Format, ALIGNED if the name is null
+         * @throws IllegalArgumentException if there is no Format with the name
+         */
+        public static Format getFormat(String name) {
+            if (name == null) {
+                return ALIGNED;
+            }
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package view;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MetricsHttpServer serves the Metrics of the Database in the Prometheus
+ * text format at GET /metrics, so they can be collected while the
+ * command-line interface is in use. It only listens on the loopback address.
+ *
+ * @author Liam Tripp
+ */
+public class MetricsHttpServer {
+
+    public final static String METRICS_PATH = "/metrics";
+    private final static String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer httpServer;
+
+    /**
+     * Constructor for MetricsHttpServer.
+     *
+     * @param metrics the metrics to serve
+     * @param port the port to listen on, 0 for any free port
+     */
+    public MetricsHttpServer(Metrics metrics, int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        httpServer.createContext(METRICS_PATH, exchange -> {
+            try (exchange) {
+                if (!exchange.getRequestMethod().equals("GET") ||
+                        !exchange.getRequestURI().getPath().equals(METRICS_PATH)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                sendMetrics(exchange, metrics);
+            }
+        });
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Stops accepting requests.
+     */
+    public void stop() {
+        httpServer.stop(0);
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Sends the metrics in the Prometheus text format. The response is
+     * chunked, since its length is not known until it is written.
+     *
+     * @param exchange the request and its response
+     * @param metrics the metrics to send
+     * @return the status code of the response
+     * @throws IOException if the response cannot be sent
+     */
+    static int sendMetrics(HttpExchange exchange, Metrics metrics) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", PROMETHEUS_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream responseBody = exchange.getResponseBody();
+             Writer writer = new OutputStreamWriter(responseBody, StandardCharsets.UTF_8)) {
+            metrics.writePrometheus(writer);
+        }
+        return 200;
+    }
+}
@@ -0,0 +1,74 @@
+package view;
+
+import java.util.regex.Matcher;
+
+/**
+ * ParsedCommand is a user's input after it has been matched to a Command.
+ * It holds the Command and the arguments captured by the Command's regular
+ * expression, so that the DatabaseCLI does not need to read Matcher groups.
+ *
+ * @author Liam Tripp
+ */
+public class ParsedCommand {
+
+    private final Command command;
+    private final String[] arguments;
+
+    /**
+     * Constructor for ParsedCommand.
+     *
+     * @param command the Command the input was matched to
+     * @param arguments the arguments of the Command, null for omitted optional arguments
+     */
+    public ParsedCommand(Command command, String... arguments) {
+        this.command = command;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Creates a ParsedCommand from a Matcher that has matched a Command's
+     * regular expression. Group 1 is the Command and the remaining groups are
+     * its arguments.
+     *
+     * @param command the Command that was matched
+     * @param matcher the Matcher after a successful match
+     * @return the parsed command
+     */
+    static ParsedCommand fromMatcher(Command command, Matcher matcher) {
+        String[] arguments = new String[matcher.groupCount() - 1];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = matcher.group(i + 2);
+        }
+        return new ParsedCommand(command, arguments);
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns an argument of the Command.
+     *
+     * @param index the position of the argument, starting at 0
+     * @return the argument, null if it was optional and omitted
+     */
+    public String getArgument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * Returns an argument of the Command, or a default if it was omitted.
+     *
+     * @param index the position of the argument, starting at 0
+     * @param defaultValue the value returned if the argument was omitted
+     * @return the argument if it was provided, defaultValue otherwise
+     */
+    public String getArgument(int index, String defaultValue) {
+        String argument = arguments[index];
+        return argument == null ? defaultValue : argument;
+    }
+
+    public int getArgumentCount() {
+        return arguments.length;
+    }
+}
@@ -0,0 +1,36 @@
+package view;
+
+import java.util.Locale;
+
+/**
+ * ScriptSummary contains the results of running a script of commands
+ * through the DatabaseCLI.
+ *
+ * @param commandCount the number of commands executed
+ * @param errorCount the number of commands that failed or were badly formatted
+ * @param elapsedNanos the time taken to run the script in nanoseconds
+ * @param rolledBack true if the script's transaction was rolled back because a command failed
+ *
+ * @author Liam Tripp
+ */
+public record ScriptSummary(long commandCount, long errorCount, long elapsedNanos, boolean rolledBack) {
+
+    /**
+     * Returns the number of commands executed per second.
+     *
+     * @return the throughput of the script
+     */
+    public double commandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commandCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format(Locale.US, "Executed %d commands (%d errors) in %d ms (%.0f commands/s)",
+                commandCount, errorCount, elapsedNanos / 1_000_000, commandsPerSecond());
+        if (rolledBack) {
+            summary += ". The transaction was rolled back, so none of the changes were committed";
+        }
+        return summary;
+    }
+}
@@ -1,5 +1,6 @@
 DROP TABLE IF EXISTS items;
 DROP TABLE IF EXISTS deleted_items;
+DROP TABLE IF EXISTS items_search;
 
 CREATE TABLE IF NOT EXISTS items (
   id INTEGER PRIMARY KEY,
@@ -19,3 +20,26 @@ CREATE TABLE IF NOT EXISTS deleted_items (
   CHECK (length(name) > 0 AND
     price >= 0 AND
     stock >= 0));
+
+CREATE INDEX IF NOT EXISTS items_name ON items (name);
+CREATE INDEX IF NOT EXISTS items_price ON items (price);
+CREATE INDEX IF NOT EXISTS items_stock ON items (stock);
+
+CREATE VIRTUAL TABLE IF NOT EXISTS items_search USING fts5(
+  name,
+  content = 'items',
+  content_rowid = 'id',
+  tokenize = 'trigram');
+
+CREATE TRIGGER IF NOT EXISTS items_search_insert AFTER INSERT ON items BEGIN
+  INSERT INTO items_search (rowid, name) VALUES (new.id, new.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS items_search_delete AFTER DELETE ON items BEGIN
+  INSERT INTO items_search (items_search, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS items_search_update AFTER UPDATE OF name ON items BEGIN
+  INSERT INTO items_search (items_search, rowid, name) VALUES ('delete', old.id, old.name);
+  INSERT INTO items_search (rowid, name) VALUES (new.id, new.name);
+END;
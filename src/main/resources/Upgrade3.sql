@@ -0,0 +1,20 @@
+CREATE VIRTUAL TABLE IF NOT EXISTS items_search USING fts5(
+  name,
+  content = 'items',
+  content_rowid = 'id',
+  tokenize = 'trigram');
+
+CREATE TRIGGER IF NOT EXISTS items_search_insert AFTER INSERT ON items BEGIN
+  INSERT INTO items_search (rowid, name) VALUES (new.id, new.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS items_search_delete AFTER DELETE ON items BEGIN
+  INSERT INTO items_search (items_search, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS items_search_update AFTER UPDATE OF name ON items BEGIN
+  INSERT INTO items_search (items_search, rowid, name) VALUES ('delete', old.id, old.name);
+  INSERT INTO items_search (rowid, name) VALUES (new.id, new.name);
+END;
+
+INSERT INTO items_search (items_search) VALUES ('rebuild');
@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DatabaseConfigTest ensures that DatabaseConfig reads its properties
+ * properly and that each DatabaseProfile is applied to the connections.
+ *
+ * @author Liam Tripp
+ */
+public class DatabaseConfigTest {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void testMissingPropertiesUseDefaults() {
+        DatabaseConfig config = DatabaseConfig.fromProperties(new Properties());
+        assertEquals(DatabaseConfig.getDefault(), config);
+        assertEquals("jdbc:sqlite:warehouse.db", config.getUrl());
+        assertEquals(DatabaseProfile.BALANCED, config.profile());
+    }
+
+    @Test
+    void testPropertiesAreRead() {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.PATH_PROPERTY, "other.db");
+        properties.setProperty(DatabaseConfig.PROFILE_PROPERTY, "Bulk-Load");
+        properties.setProperty(DatabaseConfig.POOL_SIZE_PROPERTY, "2");
+
+        DatabaseConfig config = DatabaseConfig.fromProperties(properties);
+        assertEquals(new DatabaseConfig("other.db", DatabaseProfile.BULK_LOAD, 2), config);
+
+        properties.setProperty(DatabaseConfig.SLOW_STATEMENT_PATH_PROPERTY, "logs/slow.log");
+        properties.setProperty(DatabaseConfig.SLOW_STATEMENT_THRESHOLD_PROPERTY, "250");
+        properties.setProperty(DatabaseConfig.SLOW_STATEMENT_MAX_FILE_BYTES_PROPERTY, "1024");
+        properties.setProperty(DatabaseConfig.SLOW_STATEMENT_MAX_FILES_PROPERTY, "2");
+        config = DatabaseConfig.fromProperties(properties);
+        assertEquals(new SlowStatementConfig("logs/slow.log", 250, 1024, 2), config.slowStatements());
+    }
+
+    @Test
+    void testSlowStatementLogIsNextToDatabase() {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.PATH_PROPERTY, Path.of("data", "other.db").toString());
+        SlowStatementConfig slowStatements = DatabaseConfig.fromProperties(properties).slowStatements();
+        assertEquals(Path.of("data", SlowStatementConfig.DEFAULT_FILE_NAME).toString(), slowStatements.path());
+        assertEquals(SlowStatementConfig.DEFAULT_THRESHOLD_MILLIS, slowStatements.thresholdMillis());
+        assertTrue(slowStatements.isEnabled());
+        assertThrows(IllegalArgumentException.class, () -> new SlowStatementConfig("slow.log", 0, 1024, 0));
+    }
+
+    @Test
+    void testUnknownProfileIsRejected() {
+        Properties properties = new Properties();
+        properties.setProperty(DatabaseConfig.PROFILE_PROPERTY, "fastest");
+        assertThrows(IllegalArgumentException.class, () -> DatabaseConfig.fromProperties(properties));
+    }
+
+    @Test
+    void testProfileNames() {
+        for (DatabaseProfile profile : DatabaseProfile.values()) {
+            assertEquals(profile, DatabaseProfile.getProfile(profile.getName()));
+        }
+        assertEquals("bulk-load", DatabaseProfile.BULK_LOAD.getName());
+    }
+
+    @Test
+    void testConnectionsUseProfileSettings() {
+        String path = temporaryDirectory.resolve("profile.db").toString();
+        Database database = new Database(new DatabaseConfig(path, DatabaseProfile.BULK_LOAD, 1));
+        try {
+            assertEquals("memory", database.getPragma("journal_mode"));
+            assertEquals("0", database.getPragma("synchronous"));
+            assertEquals("-256000", database.getPragma("cache_size"));
+            assertEquals("30000", database.getPragma("busy_timeout"));
+        } finally {
+            database.shutdown();
+        }
+
+        database = new Database(new DatabaseConfig(path, DatabaseProfile.BALANCED, 1));
+        try {
+            assertEquals("wal", database.getPragma("journal_mode"));
+            assertEquals("1", database.getPragma("synchronous"));
+            assertEquals(String.valueOf(256L << 20), database.getPragma("mmap_size"));
+        } finally {
+            database.shutdown();
+        }
+    }
+}
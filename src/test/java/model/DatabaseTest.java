@@ -4,10 +4,24 @@ import org.json.simple.JSONArray;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,12 +50,23 @@ public class DatabaseTest {
         database.shutdown();
     }
 
+    /**
+     * Returns the columns of an item except id mapped to their values, in
+     * the form updateItem binds them.
+     *
+     * @param item the item
+     * @return the name, price in cents and stock of the item
+     */
+    private static Map<String, Object> getColumnValues(Item item) {
+        return Map.of("name", item.getName(), "price", item.getPriceInCents(), "stock", item.getStock());
+    }
+
     @ParameterizedTest
-    @ValueSource(strings = {"0", "0.", ".0", "0.0", "100.99", "10000.999"})
+    @ValueSource(strings = {"0", "0.", ".0", "0.0", "0.05", "100.99", "10000.999"})
     void testItemResultSetConstructorConvertsPricesCorrectly(String price) {
         testItem.setPrice(price);
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
 
         // Item's ResultSet constructor is used here
         itemsList = database.selectFromTable(Table.ITEMS.getName(), "*");
@@ -52,7 +77,7 @@ public class DatabaseTest {
     @Test
     void testDatabaseInsertionForOneItem() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
         assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
 
         itemsList = database.selectFromTable(Table.ITEMS.getName(), "*");
@@ -60,10 +85,20 @@ public class DatabaseTest {
         assertEquals(testItem, itemFromDatabase);
     }
 
+    @Test
+    void testInsertionBindsValuesContainingQuotes() {
+        Item itemWithQuote = new Item(1, "O'Brien's", "1.00", 1);
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                itemWithQuote.getValuesExceptId());
+
+        itemsList = database.selectFromTable(Table.ITEMS.getName(), "*");
+        assertEquals(itemWithQuote, itemsList.get(0));
+    }
+
     @Test
     void testInsertIntoDeletedItems() {
         database.insert(Table.DELETED_ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
         assertEquals(1, database.getSizeOfTable(Table.DELETED_ITEMS.getName()));
     }
 
@@ -73,6 +108,225 @@ public class DatabaseTest {
         assertEquals(itemsJSONArray.size(), database.getSizeOfTable(Table.ITEMS.getName()));
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, Database.DEFAULT_BATCH_SIZE})
+    void testPopulatingInBatchesInsertsEveryItem(int batchSize) {
+        int rowsInserted = database.populateDatabase(batchSize);
+        assertEquals(itemsJSONArray.size(), rowsInserted);
+        assertEquals(itemsJSONArray.size(), database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testFailedBatchInsertsNoRows() {
+        List<Object[]> rows = List.of(testItem.getValuesExceptId(),
+                new Object[]{"badStock", 100, -1});
+        assertThrows(RuntimeException.class, () -> database.insertBatch(Table.ITEMS.getName(),
+                Item.getAttributeNamesExceptId(), rows, 1));
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testConcurrentInsertionsAndSelectionsAreAllApplied() throws InterruptedException {
+        int numberOfThreads = Database.DEFAULT_POOL_SIZE * 2;
+        int insertionsPerThread = 25;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            futures.add(executorService.submit(() -> {
+                for (int j = 0; j < insertionsPerThread; j++) {
+                    database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                            testItem.getValuesExceptId());
+                    assertFalse(database.selectFromTable(Table.ITEMS.getName(), "*").isEmpty());
+                }
+            }));
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        for (Future<?> future : futures) {
+            assertDoesNotThrow(() -> future.get());
+        }
+        assertEquals(numberOfThreads * insertionsPerThread,
+                database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testReadsDoNotWaitForTransactions() {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            int sizeDuringTransaction = database.runInTransaction(() -> {
+                database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                        testItem.getValuesExceptId());
+                // a reader on another thread reads the last commit while the transaction is open
+                Future<Integer> size = executorService.submit(() -> database.getSizeOfTable(Table.ITEMS.getName()));
+                try {
+                    return size.get(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertEquals(0, sizeDuringTransaction);
+            assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedTransactionKeepsItsException() {
+        IllegalStateException failure = new IllegalStateException("the operation failed");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> database.inTransaction(pooledConnection -> {
+            // the rollback and restoring auto-commit fail as well
+            pooledConnection.getConnection().close();
+            throw failure;
+        }));
+        assertSame(failure, thrown);
+        assertEquals(2, thrown.getSuppressed().length);
+    }
+
+    @Test
+    void testStreamReadsOneSnapshot() {
+        database.populateDatabase();
+        List<Item> items = database.selectFromTable(Table.ITEMS.getName(), "*");
+        List<Item> streamedItems = new ArrayList<>();
+        try (Stream<Item> stream = database.streamFromTable(Table.ITEMS.getName())) {
+            Iterator<Item> iterator = stream.iterator();
+            streamedItems.add(iterator.next());
+            // rows committed after the stream began are not seen by it
+            database.executeStatement("DELETE FROM " + Table.ITEMS.getName());
+            iterator.forEachRemaining(streamedItems::add);
+        }
+        assertEquals(items, streamedItems);
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = DatabaseProfile.class, names = {"DURABLE", "BULK_LOAD"})
+    void testStreamDoesNotBlockWritesWithRollbackJournal(DatabaseProfile profile, @TempDir Path directory) {
+        DatabaseConfig config = new DatabaseConfig(directory.resolve("journal.db").toString(), profile, 2);
+        Database journalDatabase = new Database(config);
+        try {
+            journalDatabase.initializeDatabase();
+            int numberOfItems = Database.STREAM_PAGE_SIZE + 10;
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < numberOfItems; i++) {
+                rows.add(new Item(-1, "item" + i, i, i).getValuesExceptId());
+            }
+            journalDatabase.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), rows);
+
+            int streamedItems = 0;
+            try (Stream<Item> stream = journalDatabase.streamFromTable(Table.ITEMS.getName())) {
+                Iterator<Item> iterator = stream.iterator();
+                iterator.next();
+                // the write commits while the stream is open, and the next page sees it
+                assertTimeoutPreemptively(Duration.ofSeconds(3), () -> journalDatabase.executeStatement(
+                        "DELETE FROM " + Table.ITEMS.getName() + " WHERE id > " + Database.STREAM_PAGE_SIZE));
+                streamedItems++;
+                while (iterator.hasNext()) {
+                    iterator.next();
+                    streamedItems++;
+                }
+            }
+            assertEquals(Database.STREAM_PAGE_SIZE, streamedItems);
+            assertEquals(Database.STREAM_PAGE_SIZE, journalDatabase.getSizeOfTable(Table.ITEMS.getName()));
+        } finally {
+            journalDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void testInMemoryDatabaseIsSharedByReads() {
+        DatabaseConfig config = new DatabaseConfig(":memory:", DatabaseProfile.BALANCED, 4);
+        Database memoryDatabase = new Database(config.withSlowStatements(
+                config.slowStatements().withThresholdMillis(-1)));
+        try {
+            memoryDatabase.initializeDatabase();
+            memoryDatabase.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                    testItem.getValuesExceptId());
+            assertEquals(List.of(testItem), memoryDatabase.selectFromTable(Table.ITEMS.getName(), "*"));
+            try (Stream<Item> stream = memoryDatabase.streamFromTable(Table.ITEMS.getName())) {
+                assertEquals(1, stream.count());
+            }
+        } finally {
+            memoryDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void testReadConnectionsCannotWrite() {
+        assertThrows(RuntimeException.class, () -> database.withConnection(pooledConnection -> {
+            try (Statement statement = pooledConnection.getConnection().createStatement()) {
+                return statement.executeUpdate("DELETE FROM " + Table.ITEMS.getName());
+            }
+        }));
+    }
+
+    @Test
+    void testTableStatisticsAreComputedBySQLite() {
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                new Item(-1, "cheap", "1.50", 2).getValuesExceptId());
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                new Item(-1, "expensive", "10.00", 8).getValuesExceptId());
+
+        TableStatistics statistics = database.getTableStatistics(Table.ITEMS.getName(), 5);
+        assertEquals(2, statistics.rowCount());
+        assertEquals(1150, statistics.totalPrice());
+        assertEquals(575, statistics.averagePrice());
+        assertEquals(150, statistics.minimumPrice());
+        assertEquals(1000, statistics.maximumPrice());
+        assertEquals(10, statistics.totalStock());
+        assertEquals(5, statistics.averageStock());
+        assertEquals(2, statistics.minimumStock());
+        assertEquals(8, statistics.maximumStock());
+        assertEquals(150 * 2 + 1000 * 8, statistics.inventoryValue());
+        assertEquals(1, statistics.lowStockCount());
+    }
+
+    @Test
+    void testTableStatisticsOfEmptyTable() {
+        TableStatistics statistics = database.getTableStatistics(Table.DELETED_ITEMS.getName(), 5);
+        assertEquals(0, statistics.rowCount());
+        assertEquals(0, statistics.averagePrice());
+        assertEquals(0, statistics.maximumStock());
+        assertEquals(0, statistics.lowStockCount());
+    }
+
+    @Test
+    void testStreamingTableReturnsEveryItem() {
+        database.populateDatabase();
+        List<Item> streamedItems;
+        try (Stream<Item> items = database.streamFromTable(Table.ITEMS.getName())) {
+            streamedItems = items.toList();
+        }
+        assertEquals(database.selectFromTable(Table.ITEMS.getName(), "*"), streamedItems);
+    }
+
+    @Test
+    void testUnfinishedStreamsReleaseTheirConnections() {
+        database.populateDatabase();
+        // more streams than connections in the pool
+        for (int i = 0; i < Database.DEFAULT_POOL_SIZE * 2; i++) {
+            try (Stream<Item> items = database.streamFromTable(Table.ITEMS.getName())) {
+                assertTrue(items.findFirst().isPresent());
+            }
+        }
+        assertEquals(itemsJSONArray.size(), database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testPagesContainEveryItemOnce() {
+        database.populateDatabase();
+        int pageSize = 3;
+        List<Item> itemsInPages = new ArrayList<>();
+        List<Item> page = database.selectPage(Table.ITEMS.getName(), 0, pageSize);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= pageSize);
+            itemsInPages.addAll(page);
+            int lastId = page.get(page.size() - 1).getId();
+            page = database.selectPage(Table.ITEMS.getName(), lastId, pageSize);
+        }
+        assertEquals(database.selectFromTable(Table.ITEMS.getName(), "*"), itemsInPages);
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"1", "-1"})
         // empty table, invalid id
@@ -85,11 +339,10 @@ public class DatabaseTest {
     @Test
     void testUpdatingOneValueOneItem() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
 
         String newName = "NewName";
-        String updateStatement = "name = '" + newName + "'";
-        database.updateItem(String.valueOf(testItem.getId()), updateStatement);
+        database.updateItem(String.valueOf(testItem.getId()), Map.of("name", newName));
         testItem.setName(newName);
 
         itemsList = database.selectFromTable(Table.ITEMS.getName(), "*");
@@ -99,7 +352,7 @@ public class DatabaseTest {
     @Test
     void testUpdatingMultipleValuesOneItem() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
 
         String newName = "NewName";
         String price = String.valueOf(10.99);
@@ -109,7 +362,7 @@ public class DatabaseTest {
         testItem.setStock(stock);
 
         database.updateItem(String.valueOf(testItem.getId()),
-                testItem.getAttributeNameValueListExceptId());
+                getColumnValues(testItem));
 
         itemsList = database.selectFromTable(Table.ITEMS.getName(), "*");
         assertEquals(testItem, itemsList.get(0));
@@ -118,18 +371,18 @@ public class DatabaseTest {
     @Test
     void testUpdatingItemInvalid() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
 
         int invalidId = -3;
         Item item = database.updateItem(String.valueOf(invalidId),
-                testItem.getAttributeNameValueListExceptId());
+                getColumnValues(testItem));
         assertNull(item);
     }
 
     @Test
     void testDeleteItemWithValidId() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
         database.deleteFromTable(Table.ITEMS.getName(), String.valueOf(testItem.getId()));
 
         assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
@@ -138,10 +391,257 @@ public class DatabaseTest {
     @Test
     void testDeleteItemWithInvalidId() {
         database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
-                testItem.getValuesInSQLFormatExceptId());
+                testItem.getValuesExceptId());
 
         int invalidId = 2;
         database.deleteFromTable(Table.ITEMS.getName(), String.valueOf(invalidId));
         assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
     }
+
+    @Test
+    void testDeleteItemMovesRowWithComment() {
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                testItem.getValuesExceptId());
+        Item deletedItem = database.deleteItem("1", "out of season");
+
+        assertEquals(new DeletedItem(testItem, "out of season"), deletedItem);
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertEquals(deletedItem, database.selectFromTable(Table.DELETED_ITEMS.getName(), "*", "1").get(0));
+        assertNull(database.deleteItem("1", ""));
+    }
+
+    @Test
+    void testRestoreItemMovesRowWithoutComment() {
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                testItem.getValuesExceptId());
+        database.deleteItem("1", "out of season");
+        Item restoredItem = database.restoreItem("1");
+
+        assertEquals(testItem, restoredItem);
+        assertFalse(restoredItem instanceof DeletedItem);
+        assertEquals(0, database.getSizeOfTable(Table.DELETED_ITEMS.getName()));
+        assertEquals(testItem, database.selectFromTable(Table.ITEMS.getName(), "*", "1").get(0));
+        assertNull(database.restoreItem("1"));
+    }
+
+    @Test
+    void testFailedDeleteKeepsRowInItems() {
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                testItem.getValuesExceptId());
+        // a deleted item with the same id makes the copy violate the unique id
+        database.insert(Table.DELETED_ITEMS.getName(), Table.ITEMS.getColumnList(), testItem.getValues());
+
+        assertThrows(RuntimeException.class, () -> database.deleteItem("1", ""));
+        assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertEquals(1, database.getSizeOfTable(Table.DELETED_ITEMS.getName()));
+    }
+
+    @Test
+    void testInsertAllReturnsGeneratedIds() {
+        database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                testItem.getValuesExceptId());
+        List<Object[]> rows = new ArrayList<>();
+        int numberOfRows = Database.DEFAULT_BATCH_SIZE + 5;
+        for (int i = 0; i < numberOfRows; i++) {
+            rows.add(new Item(-1, "item" + i, i, i).getValuesExceptId());
+        }
+        long[] ids = database.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), rows);
+
+        assertEquals(numberOfRows, ids.length);
+        for (int i = 0; i < numberOfRows; i += 100) {
+            Item item = database.selectFromTable(Table.ITEMS.getName(), "*", String.valueOf(ids[i])).get(0);
+            assertEquals("item" + i, item.getName());
+        }
+        assertEquals(numberOfRows + 1, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testInsertAllReturnsIdsThatAreNotConsecutive() {
+        // once the largest rowid is used, SQLite gives new rows random unused ids
+        database.executeStatement("INSERT INTO " + Table.ITEMS.getName() +
+                " (id, name) VALUES (" + Long.MAX_VALUE + ", 'last')");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Item(-1, "item" + i, i, i).getValuesExceptId());
+        }
+        long[] ids = database.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), rows);
+
+        for (int i = 0; i < ids.length; i++) {
+            List<Item> items = database.selectFromTable(Table.ITEMS.getName(), "*", String.valueOf(ids[i]));
+            assertEquals("item" + i, items.get(0).getName());
+        }
+    }
+
+    @Test
+    void testInsertAllInsertsNothingIfOneRowFails() {
+        List<Object[]> rows = List.of(testItem.getValuesExceptId(),
+                new Object[]{"", 100L, 1}); // the name check fails
+        assertThrows(RuntimeException.class,
+                () -> database.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), rows));
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testOpenDatabaseKeepsExistingRows(@TempDir Path temporaryDirectory) {
+        DatabaseConfig config = new DatabaseConfig(temporaryDirectory.resolve("warm.db").toString(),
+                DatabaseProfile.BALANCED, 1);
+        Database persistentDatabase = new Database(config);
+        int populatedSize;
+        try {
+            assertFalse(persistentDatabase.openDatabase());
+            assertEquals(Database.SCHEMA_VERSION, persistentDatabase.getSchemaVersion());
+            persistentDatabase.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                    testItem.getValuesExceptId());
+            populatedSize = persistentDatabase.getSizeOfTable(Table.ITEMS.getName());
+        } finally {
+            persistentDatabase.shutdown();
+        }
+
+        persistentDatabase = new Database(config);
+        try {
+            assertTrue(persistentDatabase.openDatabase());
+            assertEquals(populatedSize, persistentDatabase.getSizeOfTable(Table.ITEMS.getName()));
+        } finally {
+            persistentDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void testOpenDatabaseRejectsOtherSchemaVersion(@TempDir Path temporaryDirectory) {
+        Database persistentDatabase = new Database(new DatabaseConfig(
+                temporaryDirectory.resolve("old.db").toString(), DatabaseProfile.BALANCED, 1));
+        try {
+            persistentDatabase.initializeDatabase();
+            persistentDatabase.executeStatement("PRAGMA user_version = " + (Database.SCHEMA_VERSION + 1));
+            assertThrows(IllegalStateException.class, persistentDatabase::openDatabase);
+
+            // a file created before the schema was stamped is kept if its tables match
+            persistentDatabase.executeStatement("PRAGMA user_version = 0");
+            assertTrue(persistentDatabase.openDatabase());
+            assertEquals(Database.SCHEMA_VERSION, persistentDatabase.getSchemaVersion());
+        } finally {
+            persistentDatabase.shutdown();
+        }
+    }
+
+    /**
+     * Inserts items with the provided names, prices and stock.
+     *
+     * @param items the items to insert
+     */
+    void insertItems(Item... items) {
+        for (Item item : items) {
+            database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), item.getValuesExceptId());
+        }
+    }
+
+    /**
+     * Returns the query plan SQLite uses to find items with a filter.
+     *
+     * @param filter the filter of the query
+     * @return the details of each step of the plan, separated by newlines
+     */
+    String getQueryPlan(ItemFilter filter) {
+        return database.withConnection(pooledConnection -> {
+            StringBuilder queryPlan = new StringBuilder();
+            try (Statement statement = pooledConnection.getConnection().createStatement();
+                 ResultSet resultSet = statement.executeQuery("EXPLAIN QUERY PLAN SELECT * FROM " +
+                         Table.ITEMS.getName() + " WHERE " + filter.getCondition().replaceAll("\\?1?", "1") +
+                         " ORDER BY " + filter.getColumn() + ", id")) {
+                while (resultSet.next()) {
+                    queryPlan.append(resultSet.getString("detail")).append("\n");
+                }
+            }
+            return queryPlan.toString();
+        });
+    }
+
+    @Test
+    void testFindItemsUsesIndexes() {
+        for (ItemFilter filter : ItemFilter.values()) {
+            String queryPlan = getQueryPlan(filter);
+            assertTrue(queryPlan.contains("USING INDEX items_" + filter.getColumn()), queryPlan);
+            assertFalse(queryPlan.contains("TEMP B-TREE"), queryPlan);
+        }
+    }
+
+    @Test
+    void testFindItemsByEachFilter() {
+        insertItems(new Item(-1, "apple", "1.50", 2), new Item(-1, "apricot", "3.00", 10),
+                new Item(-1, "banana", "0.25", 4), new Item(-1, "ap", "10.00", 0));
+
+        assertEquals(List.of("apple"), getNames(database.findItems(ItemFilter.NAME, -1, "apple")));
+        assertEquals(List.of("apple"), getNames(database.findItems(ItemFilter.NAME_PREFIX, -1, "app")));
+        assertEquals(List.of("ap", "apple", "apricot"), getNames(database.findItems(ItemFilter.NAME_PREFIX, -1, "ap")));
+        assertEquals(List.of("apple", "apricot"), getNames(database.findItems(ItemFilter.PRICE_RANGE, -1, 150, 300)));
+        assertEquals(List.of("ap", "apple"), getNames(database.findItems(ItemFilter.STOCK_BELOW, -1, 4)));
+        assertEquals(List.of("banana", "apricot"), getNames(database.findItems(ItemFilter.STOCK_ABOVE, -1, 2)));
+        assertEquals(List.of("banana"), getNames(database.findItems(ItemFilter.STOCK_ABOVE, 1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> database.findItems(ItemFilter.PRICE_RANGE, -1, 150));
+    }
+
+    /**
+     * Returns the names of items.
+     *
+     * @param items the items
+     * @return the names of the items in order
+     */
+    List<String> getNames(List<Item> items) {
+        return items.stream().map(Item::getName).toList();
+    }
+
+    @Test
+    void testOpenDatabaseUpgradesSchema(@TempDir Path temporaryDirectory) {
+        Database persistentDatabase = new Database(new DatabaseConfig(
+                temporaryDirectory.resolve("upgrade.db").toString(), DatabaseProfile.BALANCED, 1));
+        try {
+            persistentDatabase.initializeDatabase();
+            // the first version of the schema had no indexes and no full-text index
+            persistentDatabase.executeStatement("DROP INDEX items_name; DROP INDEX items_price; " +
+                    "DROP INDEX items_stock; DROP TRIGGER items_search_insert; DROP TRIGGER items_search_delete; " +
+                    "DROP TRIGGER items_search_update; DROP TABLE items_search; PRAGMA user_version = 1");
+            persistentDatabase.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                    testItem.getValuesExceptId());
+
+            assertTrue(persistentDatabase.openDatabase());
+            assertEquals(Database.SCHEMA_VERSION, persistentDatabase.getSchemaVersion());
+            assertEquals(List.of(testItem.getName()),
+                    getNames(persistentDatabase.searchItems(List.of("Item"), 0, 10)));
+            int indexCount = persistentDatabase.withConnection(pooledConnection -> {
+                try (Statement statement = pooledConnection.getConnection().createStatement();
+                     ResultSet resultSet = statement.executeQuery(
+                             "SELECT count(*) FROM sqlite_schema WHERE type = 'index' AND tbl_name = 'items'")) {
+                    return resultSet.getInt(1);
+                }
+            });
+            assertEquals(3, indexCount);
+        } finally {
+            persistentDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void testSearchItemsMatchesPartsOfNames() {
+        insertItems(new Item(-1, "RubberDuck", "1.50", 2), new Item(-1, "Duck", "3.00", 10),
+                new Item(-1, "DuckTape", "0.25", 4), new Item(-1, "Slinky", "10.00", 0));
+
+        // the shortest name containing the term is the best match
+        assertEquals(List.of("Duck", "DuckTape", "RubberDuck"), getNames(database.searchItems(List.of("duck"), 0, 10)));
+        assertEquals(List.of("RubberDuck"), getNames(database.searchItems(List.of("duck", "rub"), 0, 10)));
+        assertEquals(List.of("DuckTape"), getNames(database.searchItems(List.of("duck"), 1, 1)));
+        assertEquals(List.of(), database.searchItems(List.of("\"duck OR slinky"), 0, 10));
+    }
+
+    @Test
+    void testSearchIndexFollowsChangesToItems() {
+        insertItems(new Item(-1, "RubberDuck", "1.50", 2));
+        database.updateItem("1", Map.of("name", "RubberBoot"));
+        assertEquals(List.of(), database.searchItems(List.of("duck"), 0, 10));
+        assertEquals(1, database.searchItems(List.of("boot"), 0, 10).size());
+
+        database.deleteItem("1", "");
+        assertEquals(List.of(), database.searchItems(List.of("boot"), 0, 10));
+        database.restoreItem("1");
+        assertEquals(1, database.searchItems(List.of("boot"), 0, 10).size());
+    }
 }
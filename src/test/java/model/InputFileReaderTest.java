@@ -5,7 +5,11 @@ import org.json.simple.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 /**
@@ -33,6 +37,17 @@ public class InputFileReaderTest {
         assertEquals(jsonArray, itemsJSONArray);
     }
 
+    @Test
+    void testStreamedItemsMatchParsedItems() {
+        InputFileReader inputFileReader = new InputFileReader(Table.ITEMS.getName(), "json");
+        List<Item> streamedItems = new ArrayList<>();
+        try (JSONItemIterator jsonItemIterator = inputFileReader.getItemIteratorFromJSONFile()) {
+            jsonItemIterator.forEachRemaining(streamedItems::add);
+            assertFalse(jsonItemIterator.hasNext());
+        }
+        assertEquals(inputFileReader.getItemsFromJSONFile(), streamedItems);
+    }
+
     @Test
     void testReadingOfSQLFile() {
         InputFileReader inputFileReader = new InputFileReader("DDL", "sql");
@@ -2,13 +2,9 @@ package model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.ValueSource;
-
-import java.math.BigDecimal;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * ItemTest ensures that Item's price conversion methods work properly.
@@ -29,7 +25,7 @@ public class ItemTest {
     void testItemInitialization() {
         assertEquals(1, item.getId());
         assertEquals(testName, item.getName());
-        assertEquals(new BigDecimal("0.0"), item.getPrice());
+        assertEquals(0, item.getPriceInCents());
         assertEquals(0, item.getStock());
     }
 
@@ -46,13 +42,19 @@ public class ItemTest {
         assertEquals(itemWithNoDecimalPrice, itemWithDecimalPrice);
     }
 
-    @ParameterizedTest
-    @ValueSource(strings = {"0", "0.", ".0", "100", "100.99"})
-    void testPriceInSQLFormat(String price) {
-        item.setPrice(price);
-        String sqlFormattedPrice = item.getPriceTimes100().toString();
-        assertTrue(item.getValuesInSQLFormat().contains(sqlFormattedPrice));
-        assertTrue(item.getValuesInSQLFormatExceptId().contains(sqlFormattedPrice));
-        assertTrue(item.getAttributeNameValueListExceptId().contains(sqlFormattedPrice));
+    @Test
+    void testPriceFormattedWithTwoDecimalPlaces() {
+        item.setPrice("0.05");
+        assertEquals("0.05", item.getPriceAsString());
+        assertEquals("0.05", item.getValuesAsArray()[2]);
+    }
+
+    @Test
+    void testAttributeNamesMatchSchemaRegistry() {
+        assertArrayEquals(new String[]{"id", "name", "price", "stock"}, Item.getAttributeNamesAsArray());
+        assertEquals("name, price, stock", Item.getAttributeNamesExceptId());
+        assertArrayEquals(new String[]{"id", "name", "price", "stock", "comment"},
+                DeletedItem.getAttributeNamesAsArray());
+        assertEquals(5, Table.DELETED_ITEMS.getColumnIndex("comment"));
     }
 }
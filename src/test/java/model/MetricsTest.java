@@ -0,0 +1,102 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MetricsTest ensures that LatencyHistogram computes quantiles within its
+ * precision and that Metrics counts and exports operations properly.
+ *
+ * @author Liam Tripp
+ */
+public class MetricsTest {
+
+    @Test
+    void testBucketsCoverEveryDuration() {
+        long[] durations = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long duration : durations) {
+            int index = LatencyHistogram.getBucketIndex(duration);
+            assertTrue(LatencyHistogram.getBucketUpperBound(index) >= duration);
+            assertTrue(index == 0 || LatencyHistogram.getBucketUpperBound(index - 1) < duration);
+        }
+        // consecutive buckets do not overlap or leave gaps
+        for (int index = 1; index <= LatencyHistogram.getBucketIndex(Long.MAX_VALUE); index++) {
+            long lowerBound = LatencyHistogram.getBucketUpperBound(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.getBucketIndex(lowerBound));
+        }
+    }
+
+    @Test
+    void testQuantilesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        assertEquals(50_000_000, histogram.getValueAtQuantile(0.5), 50_000_000 * 0.0625);
+        assertEquals(99_000_000, histogram.getValueAtQuantile(0.99), 99_000_000 * 0.0625);
+        assertEquals(99_900_000, histogram.getValueAtQuantile(0.999), 99_900_000 * 0.0625);
+        assertEquals(100_000_000, histogram.getValueAtQuantile(1));
+        assertEquals(0, new LatencyHistogram().getValueAtQuantile(0.5));
+    }
+
+    @Test
+    void testConcurrentRecordingIsCounted() throws Exception {
+        Metrics metrics = new Metrics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        metrics.record(Metrics.Group.SQL, "insert", i, i % 10 == 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        OperationStatistics insert = metrics.getStatistics(Metrics.Group.SQL).get(0);
+        assertEquals("insert", insert.name());
+        assertEquals(40_000, insert.count());
+        assertEquals(4_000, insert.errors());
+        assertTrue(metrics.getStatistics(Metrics.Group.COMMAND).isEmpty());
+    }
+
+    @Test
+    void testPrometheusExport() throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.record(Metrics.Group.COMMAND, "read", 2_000_000, false);
+        metrics.record(Metrics.Group.COMMAND, "read", 2_000_000, true);
+        metrics.record(Metrics.Group.SQL, "select", 1_000_000, false);
+        metrics.registerGauge("warehouse_queue_depth", "The depth of the queue.", () -> 3);
+
+        StringWriter writer = new StringWriter();
+        metrics.writePrometheus(writer);
+        String export = writer.toString();
+        assertTrue(export.contains("# TYPE warehouse_command_duration_seconds summary\n"));
+        assertTrue(export.contains("warehouse_command_duration_seconds{command=\"read\",quantile=\"0.5\"} 0.002"));
+        assertTrue(export.contains("warehouse_command_duration_seconds_count{command=\"read\"} 2\n"));
+        assertTrue(export.contains("warehouse_command_errors_total{command=\"read\"} 1\n"));
+        assertTrue(export.contains("warehouse_sql_duration_seconds_sum{operation=\"select\"} 0.001\n"));
+        assertTrue(export.contains("# TYPE warehouse_queue_depth gauge\nwarehouse_queue_depth 3\n"));
+        assertEquals(Map.of("warehouse_queue_depth", 3L), metrics.getGauges());
+    }
+}
@@ -0,0 +1,42 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * MoneyTest ensures that prices are converted between text and cents properly.
+ *
+ * @author Liam Tripp
+ */
+public class MoneyTest {
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "0., 0", ".0, 0", "0.05, 5", ".5, 50", "5.5, 550", "100, 10000",
+            "100.99, 10099", "0.004, 0", "0.005, 1", "10000.999, 1000100", "1.2345, 123"})
+    void testParseCents(String price, long cents) {
+        assertEquals(cents, Money.parseCents(price));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", ".", "-1", "1.0.0", "1,00", "a", "999999999999999999999"})
+    void testParseCentsInvalid(String price) {
+        assertThrows(NumberFormatException.class, () -> Money.parseCents(price));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0.00", "5, 0.05", "50, 0.50", "10099, 100.99", "-5, -0.05"})
+    void testFormat(long cents, String price) {
+        assertEquals(price, Money.format(cents));
+    }
+
+    @Test
+    void testFormatAndParseRoundTrip() {
+        long cents = 123456789;
+        assertEquals(cents, Money.parseCents(Money.format(cents)));
+    }
+}
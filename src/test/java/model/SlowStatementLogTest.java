@@ -0,0 +1,151 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SlowStatementLogTest ensures that slow statements are logged with their
+ * parameters, row counts and query plans and that the log is rotated.
+ *
+ * @author Liam Tripp
+ */
+public class SlowStatementLogTest {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    /**
+     * Returns a Database whose slow-statement log is in the temporary directory.
+     *
+     * @param thresholdMillis statements taking at least this long are logged
+     * @return the initialized Database
+     */
+    private Database createDatabase(long thresholdMillis) {
+        String path = temporaryDirectory.resolve("slow.db").toString();
+        DatabaseConfig config = new DatabaseConfig(path, DatabaseProfile.BALANCED, 1);
+        Database database = new Database(config.withSlowStatements(
+                config.slowStatements().withThresholdMillis(thresholdMillis)));
+        database.initializeDatabase();
+        return database;
+    }
+
+    @Test
+    void testSlowStatementsAreLoggedWithQueryPlan() throws IOException {
+        Database database = createDatabase(0);
+        try {
+            database.insert(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(),
+                    new Item(1, "testItem", "1.00", 1).getValuesExceptId());
+            database.selectFromTable(Table.ITEMS.getName(), "*");
+            database.selectFromTable(Table.ITEMS.getName(), "*", "1");
+        } finally {
+            database.shutdown();
+        }
+
+        String log = Files.readString(temporaryDirectory.resolve(SlowStatementConfig.DEFAULT_FILE_NAME));
+        String selectStatement = "SELECT " + Table.ITEMS.getColumnList() + " FROM " + Table.ITEMS.getName();
+        // the scan of the whole table is visible in the log
+        assertTrue(log.contains("1 row\n" + selectStatement + "\nparameters: []\nquery plan:\n" +
+                "  SCAN items\n"));
+        assertTrue(log.contains("1 row\n" + selectStatement + " WHERE id = ?\nparameters: [1]\nquery plan:\n" +
+                "  SEARCH items USING INTEGER PRIMARY KEY (rowid=?)\n"));
+    }
+
+    @Test
+    void testWritesAndStreamsAreLogged() throws IOException {
+        Database database = createDatabase(0);
+        try {
+            database.insertAll(Table.ITEMS.getName(), Item.getAttributeNamesExceptId(), List.of(
+                    new Item(1, "first", "1.00", 1).getValuesExceptId(),
+                    new Item(2, "second", "2.00", 2).getValuesExceptId()));
+            database.updateItem("1", Map.of("stock", 5));
+            database.deleteItem("2", "comment");
+            try (Stream<Item> items = database.streamFromTable(Table.ITEMS.getName())) {
+                assertEquals(1, items.count());
+            }
+        } finally {
+            database.shutdown();
+        }
+
+        String log = Files.readString(temporaryDirectory.resolve(SlowStatementConfig.DEFAULT_FILE_NAME));
+        assertTrue(log.contains("2 rows\nINSERT INTO items(name, price, stock) VALUES (?, ?, ?) RETURNING id\n" +
+                "parameters: [second, 200, 2]\n"));
+        assertTrue(log.contains("1 row\nUPDATE items SET stock = ? WHERE id = ?"));
+        assertTrue(log.contains("1 row\nINSERT INTO deleted_items"));
+        assertTrue(log.contains("1 row\nDELETE FROM items WHERE id = ?\nparameters: [2]\n"));
+        assertTrue(log.contains("1 row\nSELECT " + Table.ITEMS.getColumnList() +
+                " FROM items WHERE id > ? ORDER BY id LIMIT ?\nparameters: [" + Long.MIN_VALUE + ", -1]\n"));
+    }
+
+    @Test
+    void testFastStatementsAreNotLogged() {
+        for (long thresholdMillis : new long[]{-1, 60_000}) {
+            Database database = createDatabase(thresholdMillis);
+            try {
+                database.selectFromTable(Table.ITEMS.getName(), "*");
+            } finally {
+                database.shutdown();
+            }
+            assertFalse(Files.exists(temporaryDirectory.resolve(SlowStatementConfig.DEFAULT_FILE_NAME)));
+        }
+    }
+
+    @Test
+    void testQueryPlanIsIndented() {
+        Database database = createDatabase(-1);
+        try {
+            List<String> queryPlan = database.withConnection(pooledConnection ->
+                    Database.explainQueryPlan(pooledConnection.getConnection(),
+                            "SELECT id FROM items WHERE id IN (SELECT id FROM deleted_items WHERE price > ?)", 5));
+            assertEquals("SEARCH items USING INTEGER PRIMARY KEY (rowid=?)", queryPlan.get(0));
+            assertTrue(queryPlan.get(1).startsWith("LIST SUBQUERY"));
+            assertEquals("  SCAN deleted_items", queryPlan.get(2));
+
+            queryPlan = database.withConnection(pooledConnection ->
+                    Database.explainQueryPlan(pooledConnection.getConnection(), "SELECT * FROM missing"));
+            assertTrue(queryPlan.get(0).startsWith("unavailable: "));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    void testLogIsRotated() throws IOException {
+        Path path = temporaryDirectory.resolve("rotated.log");
+        String entry = SlowStatementLog.formatEntry(Instant.now(), "SELECT 1", List.of(), 1, 0, List.of());
+        // the length of the time varies with its precision, so the size is between 2 and 3 entries
+        long maxFileBytes = entry.length() * 5L / 2;
+        SlowStatementLog slowStatementLog = new SlowStatementLog(
+                new SlowStatementConfig(path.toString(), 0, maxFileBytes, 3));
+        for (int i = 0; i < 7; i++) {
+            slowStatementLog.write("SELECT " + i, List.of(), 1, 0, List.of());
+        }
+
+        // 2 entries fit in each file and only the newest 3 files are kept
+        assertTrue(Files.readString(path).contains("SELECT 6"));
+        assertTrue(Files.readString(slowStatementLog.getRotatedPath(1)).contains("SELECT 4\n"));
+        assertTrue(Files.readString(slowStatementLog.getRotatedPath(2)).contains("SELECT 2\n"));
+        assertFalse(Files.exists(slowStatementLog.getRotatedPath(3)));
+        assertTrue(Files.size(slowStatementLog.getRotatedPath(1)) <= maxFileBytes);
+    }
+
+    @Test
+    void testEntryFormat() {
+        String entry = SlowStatementLog.formatEntry(Instant.EPOCH, " SELECT * FROM items WHERE id = ?\n",
+                List.of(1L), 1, 1_500_000, List.of("SEARCH items USING INTEGER PRIMARY KEY (rowid=?)"));
+        assertEquals("1970-01-01T00:00:00Z 1.500 ms 1 row\n" +
+                "SELECT * FROM items WHERE id = ?\n" +
+                "parameters: [1]\n" +
+                "query plan:\n" +
+                "  SEARCH items USING INTEGER PRIMARY KEY (rowid=?)\n\n", entry);
+    }
+}
@@ -185,4 +185,71 @@ public class DatabasePresenterTest {
         Item item = databasePresenter.restoreItem(itemId);
         assertNull(item);
     }
+
+    @Test
+    void testReadItemUsesCache() {
+        databasePresenter.createItem(testItem);
+        String itemId = String.valueOf(testItem.getId());
+        assertEquals(testItem, databasePresenter.readItem(Table.ITEMS.getName(), itemId));
+        assertEquals(testItem, databasePresenter.readItem(Table.ITEMS.getName(), itemId));
+
+        CacheStatistics statistics = databasePresenter.getCacheStatistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+    }
+
+    @Test
+    void testWritesInvalidateCachedItem() {
+        databasePresenter.createItem(testItem);
+        String itemId = String.valueOf(testItem.getId());
+        databasePresenter.readItem(Table.ITEMS.getName(), itemId);
+
+        databasePresenter.updateItem(itemId, "stock = 7");
+        assertEquals(7, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+
+        databasePresenter.deleteItem(itemId, "");
+        assertNull(databasePresenter.readItem(Table.ITEMS.getName(), itemId));
+
+        databasePresenter.restoreItem(itemId);
+        assertEquals(7, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+    }
+
+    @Test
+    void testRolledBackTransactionClearsCache() {
+        databasePresenter.createItem(testItem);
+        String itemId = String.valueOf(testItem.getId());
+        assertThrows(IllegalStateException.class, () -> databasePresenter.runInTransaction(() -> {
+            databasePresenter.updateItem(itemId, "stock = 7");
+            databasePresenter.readItem(Table.ITEMS.getName(), itemId); // reads the uncommitted row
+            throw new IllegalStateException();
+        }));
+        assertEquals(testItem.getStock(), databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+    }
+
+    @Test
+    void testItemsReadInTransactionAreNotCached() {
+        databasePresenter.createItem(testItem);
+        String itemId = String.valueOf(testItem.getId());
+        int sizeInTransaction = databasePresenter.runInTransaction(() -> {
+            databasePresenter.updateItem(itemId, "stock = 7");
+            assertEquals(7, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+            return databasePresenter.getCacheStatistics().size();
+        });
+        assertEquals(0, sizeInTransaction);
+
+        assertEquals(7, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+        assertEquals(1, databasePresenter.getCacheStatistics().size());
+    }
+
+    @Test
+    void testCreateItemsAssignsIdsInOrder() {
+        databasePresenter.createItem(testItem);
+        List<Item> items = List.of(new Item(-1, "first", "1.00", 2), new Item(-1, "second", "3.50", 7));
+        List<Item> createdItems = databasePresenter.createItems(items);
+
+        assertEquals(2, createdItems.size());
+        assertEquals(new Item(2, "first", "1.00", 2), createdItems.get(0));
+        assertEquals(new Item(3, "second", "3.50", 7), createdItems.get(1));
+        assertEquals(createdItems.get(1), databasePresenter.readItem(Table.ITEMS.getName(), "3"));
+    }
 }
@@ -0,0 +1,91 @@
+package presenter;
+
+import model.Item;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ItemCacheTest ensures that ItemCache evicts, invalidates and counts
+ * items properly.
+ *
+ * @author Liam Tripp
+ */
+public class ItemCacheTest {
+
+    /**
+     * Creates an item with the provided id.
+     *
+     * @param id the id of the item
+     * @return an item with the id
+     */
+    Item createItem(int id) {
+        return new Item(id, "item" + id, id * 100L, id);
+    }
+
+    @Test
+    void testGetCountsHitsAndMisses() {
+        ItemCache itemCache = new ItemCache(10);
+        assertNull(itemCache.get(1));
+        itemCache.put(createItem(1), itemCache.getGeneration());
+        assertEquals(createItem(1), itemCache.get(1));
+        assertEquals(createItem(1), itemCache.get(1));
+
+        CacheStatistics statistics = itemCache.getStatistics();
+        assertEquals(2, statistics.hits());
+        assertEquals(1, statistics.misses());
+        assertEquals(1, statistics.size());
+        assertEquals(2.0 / 3, statistics.hitRate(), 0.0001);
+        assertEquals(1.0 / 3, statistics.missRate(), 0.0001);
+    }
+
+    @Test
+    void testLeastRecentlyUsedItemIsEvicted() {
+        ItemCache itemCache = new ItemCache(2);
+        itemCache.put(createItem(1), itemCache.getGeneration());
+        itemCache.put(createItem(2), itemCache.getGeneration());
+        itemCache.get(1); // 2 becomes the least recently used
+        itemCache.put(createItem(3), itemCache.getGeneration());
+
+        assertNotNull(itemCache.get(1));
+        assertNull(itemCache.get(2));
+        assertNotNull(itemCache.get(3));
+        assertEquals(1, itemCache.getStatistics().evictions());
+        assertEquals(2, itemCache.getStatistics().size());
+    }
+
+    @Test
+    void testReadBeforeInvalidationIsNotCached() {
+        ItemCache itemCache = new ItemCache(10);
+        long readGeneration = itemCache.getGeneration();
+        itemCache.invalidate(1); // a write finishes while the read is in progress
+        itemCache.put(createItem(1), readGeneration);
+        assertNull(itemCache.get(1));
+    }
+
+    @Test
+    void testInvalidateRemovesItem() {
+        ItemCache itemCache = new ItemCache(10);
+        itemCache.put(createItem(1), itemCache.getGeneration());
+        itemCache.invalidate(1);
+        assertNull(itemCache.get(1));
+    }
+
+    @Test
+    void testCachedItemCannotBeChangedByReaders() {
+        ItemCache itemCache = new ItemCache(10);
+        Item item = createItem(1);
+        itemCache.put(item, itemCache.getGeneration());
+        item.setStock(1000);
+        itemCache.get(1).setStock(2000);
+        assertEquals(1, itemCache.get(1).getStock());
+    }
+
+    @Test
+    void testDisabledCacheHoldsNothing() {
+        ItemCache itemCache = new ItemCache(0);
+        itemCache.put(createItem(1), itemCache.getGeneration());
+        assertNull(itemCache.get(1));
+        assertEquals(0, itemCache.getStatistics().size());
+    }
+}
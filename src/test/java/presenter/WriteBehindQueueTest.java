@@ -0,0 +1,192 @@
+package presenter;
+
+import model.Database;
+import model.Item;
+import model.Metrics;
+import model.OperationStatistics;
+import model.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WriteBehindQueueTest ensures that the DatabasePresenter's write-behind mode
+ * commits queued writes in order and in batches, and that a failed write
+ * only fails its own future.
+ *
+ * @author Liam Tripp
+ */
+public class WriteBehindQueueTest {
+
+    private Database database;
+    private DatabasePresenter databasePresenter;
+
+    @BeforeEach
+    void setup() {
+        database = new Database();
+        database.initializeDatabase();
+        databasePresenter = new DatabasePresenter();
+        databasePresenter.addDatabase(database);
+        databasePresenter.startWriteBehind(1_000, 64, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databasePresenter.terminateDatabase();
+    }
+
+    /**
+     * Returns the statistics of the flushes of the write-behind queue.
+     *
+     * @return the statistics of the write_behind_flush SQL operation
+     */
+    private OperationStatistics getFlushStatistics() {
+        for (OperationStatistics operation : database.getMetrics().getStatistics(Metrics.Group.SQL)) {
+            if (operation.name().equals("write_behind_flush")) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testQueuedWritesAreCommittedInOrderAndInBatches() {
+        int numberOfItems = 500;
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfItems; i++) {
+            futures.add(databasePresenter.createItemAsync(new Item(-1, "item" + i, i, i)));
+        }
+
+        for (int i = 0; i < numberOfItems; i++) {
+            Item item = futures.get(i).join();
+            assertEquals(i + 1, item.getId());
+            assertEquals("item" + i, item.getName());
+        }
+        assertEquals(numberOfItems, database.getSizeOfTable(Table.ITEMS.getName()));
+        // the writes share commits
+        assertTrue(getFlushStatistics().count() < numberOfItems);
+        assertEquals(0, getFlushStatistics().errors());
+
+        Map<String, Long> gauges = database.getMetrics().getGauges();
+        assertEquals(0, gauges.get("warehouse_write_behind_queue_depth"));
+        assertTrue(gauges.get("warehouse_write_behind_batch_size") <= 64);
+    }
+
+    @Test
+    void testFailedWriteOnlyFailsItsFuture() {
+        CompletableFuture<Item> first = databasePresenter.createItemAsync(new Item(-1, "first", 100, 1));
+        // the name check of the items table fails
+        CompletableFuture<Item> invalid = databasePresenter.createItemAsync(new Item(-1, "", 100, 1));
+        CompletableFuture<Item> last = databasePresenter.createItemAsync(new Item(-1, "last", 100, 1));
+
+        assertEquals("first", first.join().getName());
+        assertEquals("last", last.join().getName());
+        assertThrows(CompletionException.class, invalid::join);
+        assertEquals(2, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertThrows(RuntimeException.class, () -> databasePresenter.createItem(new Item(-1, "", 100, 1)));
+    }
+
+    @Test
+    void testSynchronousWritesWaitForCommit() {
+        Item item = databasePresenter.createItem(new Item(-1, "testName", "100.99", 1));
+        assertEquals(item, databasePresenter.readItem(Table.ITEMS.getName(), String.valueOf(item.getId())));
+
+        Item updatedItem = databasePresenter.updateItem(String.valueOf(item.getId()), "stock = 5");
+        assertEquals(5, updatedItem.getStock());
+        // the update invalidated the cached item
+        assertEquals(updatedItem, databasePresenter.readItem(Table.ITEMS.getName(), String.valueOf(item.getId())));
+        assertNull(databasePresenter.updateItem("999", "stock = 5"));
+        assertThrows(NumberFormatException.class, () -> databasePresenter.updateItemAsync("one", Map.of("stock", 1)));
+    }
+
+    /**
+     * BlockingItem is an Item whose insert waits for a latch, so that the
+     * batch containing it stays open.
+     */
+    private static class BlockingItem extends Item {
+        private final CountDownLatch inserting = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingItem(String name) {
+            super(-1, name, 100, 1);
+        }
+
+        @Override
+        public Object[] getValuesExceptId() {
+            inserting.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return super.getValuesExceptId();
+        }
+    }
+
+    @Test
+    void testReadDuringUncommittedBatchIsNotCached() throws InterruptedException {
+        Item item = databasePresenter.createItem(new Item(-1, "testName", "100.99", 1));
+        String itemId = String.valueOf(item.getId());
+        databasePresenter.readItem(Table.ITEMS.getName(), itemId);
+
+        // the first write keeps the writer busy while the next two are queued, so they share a batch
+        BlockingItem first = new BlockingItem("first");
+        CompletableFuture<Item> firstFuture = databasePresenter.createItemAsync(first);
+        assertTrue(first.inserting.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Item> update = databasePresenter.updateItemAsync(itemId, Map.of("stock", 5));
+        BlockingItem last = new BlockingItem("last");
+        CompletableFuture<Item> lastFuture = databasePresenter.createItemAsync(last);
+        first.release.countDown();
+        firstFuture.join();
+
+        // the update has been executed but not committed, so the old row is read and cached
+        assertTrue(last.inserting.await(10, TimeUnit.SECONDS));
+        assertFalse(update.isDone());
+        assertEquals(1, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+        last.release.countDown();
+        lastFuture.join();
+
+        assertEquals(5, update.join().getStock());
+        assertEquals(5, databasePresenter.readItem(Table.ITEMS.getName(), itemId).getStock());
+    }
+
+    @Test
+    void testWritesInTransactionAreNotQueued() {
+        assertThrows(IllegalStateException.class, () -> databasePresenter.runInTransaction(() -> {
+            databasePresenter.createItem(new Item(-1, "rolledBack", 100, 1));
+            throw new IllegalStateException("roll back");
+        }));
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testShutdownCommitsQueuedWrites() {
+        Database otherDatabase = new Database();
+        DatabasePresenter otherPresenter = new DatabasePresenter();
+        otherPresenter.addDatabase(otherDatabase);
+        otherPresenter.startWriteBehind(1_000, 16, 10_000);
+        List<CompletableFuture<Item>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(otherPresenter.createItemAsync(new Item(-1, "item" + i, i, i)));
+        }
+        otherPresenter.terminateDatabase();
+
+        for (CompletableFuture<Item> future : futures) {
+            assertTrue(future.isDone());
+            assertFalse(future.isCompletedExceptionally());
+        }
+        assertEquals(100, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertThrows(IllegalStateException.class,
+                () -> otherPresenter.createItemAsync(new Item(-1, "late", 100, 1)));
+    }
+}
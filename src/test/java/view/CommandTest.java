@@ -90,4 +90,30 @@ public class CommandTest {
             assertNotEquals("", error);
         }
     }
+
+    @ParameterizedTest
+    @EnumSource(Command.class)
+    @SuppressWarnings("unchecked")
+    void testParsingRoutesInputsToTheirCommand(Command command) {
+        JSONObject validTests = getCommandTest(command.getName(), "valid");
+        for (Object object : (Collection<Object>) validTests.values()) {
+            ParsedCommand parsedCommand = inputMatcher.parse((String) object);
+            assertNotNull(parsedCommand);
+            assertEquals(command, parsedCommand.getCommand());
+        }
+
+        JSONObject invalidTests = getCommandTest(command.getName(), "invalid");
+        for (Object object : (Collection<Object>) invalidTests.values()) {
+            assertNull(inputMatcher.parse((String) object));
+        }
+    }
+
+    @Test
+    void testParsedCommandArguments() {
+        ParsedCommand parsedCommand = inputMatcher.parse("READ items LIMIT 5");
+        assertEquals(Command.READ, parsedCommand.getCommand());
+        assertEquals("items", parsedCommand.getArgument(0));
+        assertNull(parsedCommand.getArgument(1));
+        assertEquals("5", parsedCommand.getArgument(2));
+    }
 }
@@ -6,8 +6,15 @@ import model.Table;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import presenter.DatabasePresenter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -75,6 +82,63 @@ public class DatabaseCLITest {
         assertFalse(consoleOutput.contains("ERROR"));
     }
 
+    @Test
+    void testReadPageOfTable() {
+        createItem();
+        createItem();
+        String readStatement = "READ " + Table.ITEMS.getName() + " AFTER 1 LIMIT 1";
+        String consoleOutput = databaseCLI.processInput(readStatement);
+        assertFalse(consoleOutput.contains("ERROR"));
+        assertTrue(consoleOutput.contains("AFTER 2 LIMIT 1"));
+
+        readStatement = "READ " + Table.ITEMS.getName() + " AFTER 2";
+        consoleOutput = databaseCLI.processInput(readStatement);
+        assertTrue(consoleOutput.contains("ERROR"));
+    }
+
+    @Test
+    void testReadInEachFormat() {
+        createItem();
+        createItem();
+        String readStatement = "READ " + Table.ITEMS.getName() + " LIMIT 1";
+        assertEquals("Table items contains:\n" +
+                "id | name     | price  | stock\n" +
+                "1  | testName | 100.99 | 1\n" +
+                "Enter `READ items AFTER 1 LIMIT 1` for the next page.\n", databaseCLI.processInput(readStatement));
+        assertEquals("id,name,price,stock\n1,testName,100.99,1\n2,testName,100.99,1\n",
+                databaseCLI.processInput("READ " + Table.ITEMS.getName() + " FORMAT csv"));
+        assertEquals("[\n  {\"id\": 2, \"name\": \"testName\", \"price\": \"100.99\", \"stock\": 1}\n]\n",
+                databaseCLI.processInput("READ " + Table.ITEMS.getName() + " AFTER 1 FORMAT json"));
+    }
+
+    @Test
+    void testReadWithoutRows() {
+        String readStatement = "READ " + Table.ITEMS.getName();
+        assertEquals("id,name,price,stock\n", databaseCLI.processInput(readStatement + " FORMAT csv"));
+        assertEquals("[]\n", databaseCLI.processInput(readStatement + " FORMAT json"));
+        assertEquals("ERROR: items is empty.", databaseCLI.processInput(readStatement));
+
+        createItem();
+        assertEquals("[]\n", databaseCLI.processInput(readStatement + " LIMIT 0 FORMAT json"));
+        assertEquals("Table items contains:\nid | name | price | stock\n",
+                databaseCLI.processInput(readStatement + " LIMIT 0"));
+        assertEquals("id,name,price,stock\n", databaseCLI.processInput(readStatement + " AFTER 1 FORMAT csv"));
+    }
+
+    @Test
+    void testReadWritesRowsToOutput() {
+        createItem();
+        StringWriter output = new StringWriter();
+        String consoleOutput = databaseCLI.processInput("READ " + Table.ITEMS.getName() + " FORMAT csv", output);
+        assertEquals("", consoleOutput);
+        assertEquals("id,name,price,stock\n1,testName,100.99,1\n", output.toString());
+
+        consoleOutput = databaseCLI.processInput("READ " + Table.ITEMS.getName() + " AFTER 1", output);
+        assertTrue(consoleOutput.startsWith("ERROR"));
+        // nothing is written for an error
+        assertEquals("id,name,price,stock\n1,testName,100.99,1\n", output.toString());
+    }
+
     @Test
     void testUpdateOneItemOneAttribute() {
         createItem();
@@ -92,6 +156,18 @@ public class DatabaseCLITest {
         assertEquals(originalItem, updatedItem);
     }
 
+    @Test
+    void testUpdateOneItemSeveralAttributes() {
+        createItem();
+        String updateStatement = "UPDATE 1 name = 'newTestName', price = 2.50, stock = 10";
+        String consoleOutput = databaseCLI.processInput(updateStatement);
+        assertFalse(consoleOutput.contains("ERROR"));
+        assertTrue(consoleOutput.contains("1, newTestName, 2.50, 10"));
+
+        Item updatedItem = database.selectFromTable(Table.ITEMS.getName(), "*").get(0);
+        assertEquals(new Item(1, "newTestName", "2.50", 10), updatedItem);
+    }
+
     @Test
     void testUpdateItemInvalid() {
         createItem();
@@ -145,6 +221,17 @@ public class DatabaseCLITest {
         assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
     }
 
+    @Test
+    void testStatsOfTableWithItems() {
+        createItem();
+        String statsStatement = "STATS " + Table.ITEMS.getName() + " 2";
+        String consoleOutput = databaseCLI.processInput(statsStatement);
+        assertFalse(consoleOutput.contains("ERROR"));
+        assertTrue(consoleOutput.contains("rows: 1"));
+        assertTrue(consoleOutput.contains("inventory value: 100.99"));
+        assertTrue(consoleOutput.contains("items with stock below 2: 1"));
+    }
+
     @Test
     void testRestoreItemInvalid() {
         testDeleteOneItem();
@@ -154,4 +241,165 @@ public class DatabaseCLITest {
         String consoleOutput = databaseCLI.processInput(restoreStatement);
         assertTrue(consoleOutput.contains("ERROR"));
     }
+
+    @Test
+    void testRunScriptExecutesEachCommand() {
+        String script = """
+                # comments and blank lines are skipped
+
+                CREATE first 1.50 3
+                CREATE second 2.25 4
+                READ items
+                DELETE 1000
+                not a command
+                """;
+        StringWriter output = new StringWriter();
+        ScriptSummary summary = databaseCLI.runScript(new BufferedReader(new StringReader(script)), output, false);
+
+        assertEquals(5, summary.commandCount());
+        assertEquals(2, summary.errorCount());
+        assertEquals(2, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertTrue(output.toString().contains("Created item: first, 1.50, 3"));
+        assertTrue(output.toString().endsWith(summary + "\n"));
+    }
+
+    @Test
+    void testRunScriptStopsAtQuit() {
+        String script = "CREATE first 1.50 3\nQUIT\nCREATE second 2.25 4\n";
+        ScriptSummary summary = databaseCLI.runScript(
+                new BufferedReader(new StringReader(script)), new StringWriter(), true);
+
+        assertEquals(1, summary.commandCount());
+        assertEquals(0, summary.errorCount());
+        assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertFalse(databaseCLI.userWantsToQuit());
+    }
+
+    @Test
+    void testRunScriptInOneTransaction() {
+        StringBuilder script = new StringBuilder();
+        int numberOfItems = 500;
+        for (int i = 0; i < numberOfItems; i++) {
+            script.append("CREATE item").append(i).append(" 1.00 ").append(i).append("\n");
+        }
+        script.append("UPDATE 1 stock = 1000\n");
+        ScriptSummary summary = databaseCLI.runScript(
+                new BufferedReader(new StringReader(script.toString())), new StringWriter(), true);
+
+        assertEquals(numberOfItems + 1, summary.commandCount());
+        assertEquals(0, summary.errorCount());
+        assertFalse(summary.rolledBack());
+        assertEquals(numberOfItems, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertEquals(1000, database.selectFromTable(Table.ITEMS.getName(), "*", "1").get(0).getStock());
+    }
+
+    @Test
+    void testRunScriptInOneTransactionRollsBackAtFirstError() {
+        String script = """
+                CREATE first 1.50 3
+                UPDATE 1 stock = 10
+                DELETE 1000
+                CREATE second 2.25 4
+                """;
+        StringWriter output = new StringWriter();
+        ScriptSummary summary = databaseCLI.runScript(new BufferedReader(new StringReader(script)), output, true);
+
+        // the script stops at DELETE, and the create and update before it are rolled back
+        assertEquals(3, summary.commandCount());
+        assertEquals(1, summary.errorCount());
+        assertTrue(summary.rolledBack());
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertFalse(output.toString().contains("second"));
+        assertTrue(output.toString().endsWith(summary + "\n"));
+        assertTrue(summary.toString().contains("rolled back"));
+        // the rolled back item is not served from the cache
+        assertNull(databasePresenter.readItem(Table.ITEMS.getName(), "1"));
+    }
+
+    @Test
+    void testCacheReportsStatistics() {
+        createItem();
+        databasePresenter.readItem(Table.ITEMS.getName(), "1");
+        String consoleOutput = databaseCLI.processInput("CACHE");
+        assertFalse(consoleOutput.contains("ERROR"));
+        assertTrue(consoleOutput.contains("items: 1 / " + DatabasePresenter.DEFAULT_ITEM_CACHE_CAPACITY));
+        assertTrue(consoleOutput.contains("misses: 1 (100.00%)"));
+        assertTrue(consoleOutput.contains("evictions: 0"));
+    }
+
+    @Test
+    void testCreateMultipleItems() {
+        String consoleOutput = databaseCLI.processInput("CREATE first 1.00 2; second 3.50 7;third 0.99 0");
+        assertFalse(consoleOutput.contains("ERROR"));
+        assertTrue(consoleOutput.startsWith("Created 3 items:"));
+        assertTrue(consoleOutput.contains("2, second, 3.50, 7"));
+        assertEquals(3, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testFindItems() {
+        databaseCLI.processInput("CREATE apple 1.50 2; apricot 3.00 10; banana 0.25 4");
+
+        String consoleOutput = databaseCLI.processInput("FIND prefix ap");
+        assertTrue(consoleOutput.startsWith("Found 2 items in " + Table.ITEMS.getName()));
+        assertTrue(consoleOutput.contains("1 | apple | 1.50 | 2"));
+        assertTrue(consoleOutput.contains("2 | apricot | 3.00 | 10"));
+
+        assertTrue(databaseCLI.processInput("FIND price 0 1.50").startsWith("Found 2 items"));
+        assertTrue(databaseCLI.processInput("FIND stock below 5 LIMIT 1").startsWith("Found 1 items"));
+        assertTrue(databaseCLI.processInput("FIND name cherry").startsWith("Found 0 items"));
+    }
+
+    @Test
+    void testSearchItemsWithPaging() {
+        databaseCLI.processInput("CREATE rubberDuck 1.50 2; duck 3.00 10; duckTape 0.25 4");
+
+        String consoleOutput = databaseCLI.processInput("SEARCH duck LIMIT 2");
+        assertTrue(consoleOutput.startsWith("Found 2 items matching 'duck' on page 1"));
+        assertTrue(consoleOutput.contains("2 | duck | 3.00 | 10"));
+        assertTrue(consoleOutput.contains("`SEARCH duck PAGE 2 LIMIT 2`"));
+
+        consoleOutput = databaseCLI.processInput("SEARCH duck PAGE 2 LIMIT 2");
+        assertTrue(consoleOutput.contains("1 | rubberDuck | 1.50 | 2"));
+        assertFalse(consoleOutput.contains("next page"));
+    }
+
+    @Test
+    void testMetricsCountCommandsAndOperations() {
+        createItem();
+        databaseCLI.processInput("READ " + Table.ITEMS.getName());
+        databaseCLI.processInput("RESTORE 1000");
+        databaseCLI.processInput("schmupdate 1");
+
+        String consoleOutput = databaseCLI.processInput("METRICS");
+        assertTrue(consoleOutput.contains("create | 1 | 0 | "));
+        assertTrue(consoleOutput.contains("read | 1 | 0 | "));
+        assertTrue(consoleOutput.contains("restore | 1 | 1 | "));
+        assertTrue(consoleOutput.contains("invalid | 1 | 1 | "));
+        assertTrue(consoleOutput.contains("insert | 1 | 0 | "));
+        assertTrue(consoleOutput.contains("restore_item | 1 | 0 | "));
+    }
+
+    @Test
+    void testMetricsExport(@TempDir Path temporaryDirectory) throws IOException {
+        createItem();
+        Path exportFile = temporaryDirectory.resolve("metrics.prom");
+        String consoleOutput = databaseCLI.processInput("METRICS EXPORT " + exportFile);
+        assertFalse(consoleOutput.contains("ERROR"));
+
+        String export = Files.readString(exportFile);
+        assertTrue(export.contains("warehouse_command_duration_seconds_count{command=\"create\"} 1\n"));
+        assertTrue(export.contains("warehouse_sql_errors_total{operation=\"insert\"} 0\n"));
+    }
+
+    @Test
+    void testMetricsExportKeepsCaseOfPath(@TempDir Path temporaryDirectory) {
+        Path exportFile = temporaryDirectory.resolve("Metrics.prom");
+        ScriptSummary summary = databaseCLI.runScript(new BufferedReader(
+                new StringReader("Metrics Export " + exportFile + "\n")), new StringWriter(), false);
+
+        assertEquals(0, summary.errorCount());
+        assertTrue(Files.exists(exportFile));
+        assertFalse(Files.exists(temporaryDirectory.resolve("metrics.prom")));
+    }
 }
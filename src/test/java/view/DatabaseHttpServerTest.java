@@ -0,0 +1,236 @@
+package view;
+
+import model.Database;
+import model.Table;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import presenter.DatabasePresenter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DatabaseHttpServerTest ensures that DatabaseHttpServer's endpoints work
+ * properly with the DatabasePresenter.
+ *
+ * @author Liam Tripp
+ */
+public class DatabaseHttpServerTest {
+
+    private Database database;
+    private DatabasePresenter databasePresenter;
+    private DatabaseHttpServer httpServer;
+    private ByteArrayOutputStream latencyLog;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setup() {
+        database = new Database();
+        database.initializeDatabase();
+        databasePresenter = new DatabasePresenter();
+        databasePresenter.addDatabase(database);
+        latencyLog = new ByteArrayOutputStream();
+        httpServer = new DatabaseHttpServer(databasePresenter, 0, 4, 5,
+                new PrintStream(latencyLog, true, StandardCharsets.UTF_8));
+        httpServer.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpServer.stop();
+        databasePresenter.terminateDatabase();
+    }
+
+    /**
+     * Sends a request to the server.
+     *
+     * @param method the HTTP method of the request
+     * @param path the path and query of the request
+     * @param body the JSON body of the request, null for none
+     * @return the response to the request
+     */
+    HttpResponse<String> send(String method, String path, String body) {
+        HttpRequest.BodyPublisher bodyPublisher = body == null ?
+                HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + httpServer.getPort() + path))
+                .method(method, bodyPublisher)
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parses the body of a response.
+     *
+     * @param response the response with a JSON body
+     * @return the body as a JSONObject or JSONArray
+     */
+    Object parse(HttpResponse<String> response) {
+        try {
+            return new JSONParser().parse(response.body());
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates an item.
+     *
+     * @return the response containing the created item
+     */
+    HttpResponse<String> createItem() {
+        return send("POST", "/items", "{\"name\": \"testName\", \"price\": \"100.99\", \"stock\": 1}");
+    }
+
+    @Test
+    void testCreateItemReturnsItemWithId() {
+        HttpResponse<String> response = createItem();
+        assertEquals(201, response.statusCode());
+
+        JSONObject item = (JSONObject) parse(response);
+        assertEquals(1L, item.get("id"));
+        assertEquals("testName", item.get("name"));
+        assertEquals("100.99", item.get("price"));
+        assertEquals(1L, item.get("stock"));
+        assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testCreateItemInvalid() {
+        assertEquals(400, send("POST", "/items", "{\"name\": \"testName\"}").statusCode());
+        assertEquals(400, send("POST", "/items", "{\"name\": \"testName\", \"price\": 1, \"stock\": 1}").statusCode());
+        assertEquals(400, send("POST", "/items", "not json").statusCode());
+        assertEquals(400, send("POST", "/items", "[1]").statusCode());
+        assertEquals(400, send("POST", "/items", "\"testName\"").statusCode());
+        assertEquals(400, send("POST", "/items", "{\"name\": 5, \"price\": \"1.00\", \"stock\": 1}").statusCode());
+        assertEquals(400, send("POST", "/items", "{\"name\": \"testName\", \"price\": \"1.00\", \"stock\": 1.5}").statusCode());
+        assertEquals(400, send("POST", "/items",
+                "{\"name\": \"testName\", \"price\": \"1.00\", \"stock\": 3000000000}").statusCode());
+        assertEquals(400, send("POST", "/items", "{\"name\": \"testName\", \"price\": \"abc\", \"stock\": 1}").statusCode());
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testServerErrorIsNotInvalidRequest() {
+        createItem();
+        database.executeStatement("DROP TABLE " + Table.DELETED_ITEMS.getName());
+        assertEquals(500, send("DELETE", "/items/1", null).statusCode());
+    }
+
+    @Test
+    void testReadOneItem() {
+        createItem();
+        HttpResponse<String> response = send("GET", "/items/1", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("testName", ((JSONObject) parse(response)).get("name"));
+        assertEquals(404, send("GET", "/items/1000", null).statusCode());
+    }
+
+    @Test
+    void testReadTableWithPagination() {
+        for (int i = 0; i < 3; i++) {
+            createItem();
+        }
+        JSONArray items = (JSONArray) parse(send("GET", "/items", null));
+        assertEquals(3, items.size());
+
+        JSONArray page = (JSONArray) parse(send("GET", "/items?after=1&limit=1", null));
+        assertEquals(1, page.size());
+        assertEquals(2L, ((JSONObject) page.get(0)).get("id"));
+
+        assertEquals(0, ((JSONArray) parse(send("GET", "/deleted_items", null))).size());
+        assertEquals(404, send("GET", "/unknown", null).statusCode());
+        assertEquals(400, send("GET", "/items?limit=many", null).statusCode());
+        assertEquals(404, send("GET", "/items/99999999999999999999", null).statusCode());
+    }
+
+    @Test
+    void testUpdateItem() {
+        createItem();
+        HttpResponse<String> response = send("PATCH", "/items/1", "{\"price\": \"2.50\", \"stock\": 7}");
+        assertEquals(200, response.statusCode());
+        JSONObject item = (JSONObject) parse(response);
+        assertEquals("2.50", item.get("price"));
+        assertEquals(7L, item.get("stock"));
+
+        assertEquals(400, send("PATCH", "/items/1", "{\"id\": 5}").statusCode());
+        assertEquals(404, send("PATCH", "/items/1000", "{\"stock\": 7}").statusCode());
+    }
+
+    @Test
+    void testDeleteAndRestoreItem() {
+        createItem();
+        HttpResponse<String> response = send("DELETE", "/items/1?comment=out%20of%20season", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("out of season", ((JSONObject) parse(response)).get("comment"));
+        assertEquals(0, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertEquals(1, database.getSizeOfTable(Table.DELETED_ITEMS.getName()));
+
+        assertEquals(200, send("POST", "/deleted_items/1/restore", null).statusCode());
+        assertEquals(1, database.getSizeOfTable(Table.ITEMS.getName()));
+        assertEquals(404, send("POST", "/deleted_items/1/restore", null).statusCode());
+    }
+
+    @Test
+    void testUnsupportedMethod() {
+        assertEquals(405, send("DELETE", "/items", null).statusCode());
+        assertEquals(405, send("POST", "/deleted_items", "{}").statusCode());
+    }
+
+    @Test
+    void testRequestsAreLogged() {
+        createItem();
+        send("GET", "/items/1", null);
+        String log = latencyLog.toString(StandardCharsets.UTF_8);
+        assertTrue(log.contains("POST /items 201 "));
+        assertTrue(log.contains("GET /items/1 200 "));
+    }
+
+    @Test
+    void testRequestsOverConcurrencyLimitAreRejected() {
+        httpServer.stop();
+        httpServer = new DatabaseHttpServer(databasePresenter, 0, 0, 0, null);
+        httpServer.start();
+        assertEquals(503, send("GET", "/items", null).statusCode());
+    }
+
+    @Test
+    void testCreateSeveralItems() {
+        HttpResponse<String> response = send("POST", "/items",
+                "[{\"name\": \"first\", \"price\": \"1.00\", \"stock\": 2}," +
+                        "{\"name\": \"second\", \"price\": \"3.50\", \"stock\": 7}]");
+        assertEquals(201, response.statusCode());
+        JSONArray items = (JSONArray) parse(response);
+        assertEquals(2L, ((JSONObject) items.get(1)).get("id"));
+        assertEquals(2, database.getSizeOfTable(Table.ITEMS.getName()));
+
+        assertEquals(400, send("POST", "/items", "[{\"name\": \"third\"}]").statusCode());
+        assertEquals(2, database.getSizeOfTable(Table.ITEMS.getName()));
+    }
+
+    @Test
+    void testMetricsEndpoint() {
+        createItem();
+        HttpResponse<String> response = send("GET", "/metrics", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        assertTrue(response.body().contains("warehouse_sql_duration_seconds_count{operation=\"insert\"} 1\n"));
+    }
+}
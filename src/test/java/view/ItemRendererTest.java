@@ -0,0 +1,97 @@
+package view;
+
+import model.DeletedItem;
+import model.Item;
+import model.Table;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ItemRendererTest ensures that ItemRenderer writes rows as aligned columns,
+ * CSV and JSON, and stops at the row limit.
+ *
+ * @author Liam Tripp
+ */
+public class ItemRendererTest {
+
+    /**
+     * Renders items and returns what was written.
+     *
+     * @param format how the rows are written
+     * @param columnNames the names of the columns of the table
+     * @param items the items to write
+     * @param limit the maximum number of rows written, negative for no limit
+     * @return the written rows
+     */
+    private static String render(ItemRenderer.Format format, List<String> columnNames,
+                                 List<? extends Item> items, int limit) throws IOException {
+        StringWriter writer = new StringWriter();
+        new ItemRenderer(format, columnNames, writer).render(items.iterator(), limit);
+        return writer.toString();
+    }
+
+    @Test
+    void testAlignedColumns() throws IOException {
+        List<Item> items = List.of(new Item(1, "apple", "1.50", 3), new Item(12, "watermelon", "10.00", 150));
+        assertEquals("""
+                id | name       | price | stock
+                1  | apple      | 1.50  | 3
+                12 | watermelon | 10.00 | 150
+                """, render(ItemRenderer.Format.ALIGNED, Table.ITEMS.getColumnNames(), items, -1));
+    }
+
+    @Test
+    void testCSVQuotesValues() throws IOException {
+        List<DeletedItem> items = List.of(
+                new DeletedItem(new Item(1, "apple", "1.50", 3), "sold out, \"for now\""),
+                new DeletedItem(new Item(2, "pear", "0.75", 0)));
+        assertEquals("""
+                id,name,price,stock,comment
+                1,apple,1.50,3,"sold out, ""for now\"\"\"
+                2,pear,0.75,0,
+                """, render(ItemRenderer.Format.CSV, Table.DELETED_ITEMS.getColumnNames(), items, -1));
+    }
+
+    @Test
+    void testJSONArray() throws IOException {
+        List<Item> items = List.of(new Item(1, "apple", "1.50", 3), new Item(2, "pear", "0.75", 0));
+        assertEquals("""
+                [
+                  {"id": 1, "name": "apple", "price": "1.50", "stock": 3},
+                  {"id": 2, "name": "pear", "price": "0.75", "stock": 0}
+                ]
+                """, render(ItemRenderer.Format.JSON, Table.ITEMS.getColumnNames(), items, -1));
+        assertEquals("[]\n", render(ItemRenderer.Format.JSON, Table.ITEMS.getColumnNames(), List.of(), -1));
+    }
+
+    @Test
+    void testRowLimit() throws IOException {
+        int numberOfItems = ItemRenderer.ALIGNMENT_ROWS * 2;
+        Iterator<Item> items = IntStream.rangeClosed(1, numberOfItems)
+                .mapToObj(id -> new Item(id, "item" + id, id, id)).iterator();
+        StringWriter writer = new StringWriter();
+        ItemRenderer itemRenderer = new ItemRenderer(ItemRenderer.Format.ALIGNED, Table.ITEMS.getColumnNames(), writer);
+
+        assertEquals(numberOfItems - 10, itemRenderer.render(items, numberOfItems - 10));
+        assertEquals(numberOfItems - 10, itemRenderer.getLastId());
+        // the rows after the limit are not read
+        assertEquals(numberOfItems - 9, items.next().getId());
+        // the header and each row are written on their own line
+        assertEquals(numberOfItems - 9, writer.toString().lines().count());
+    }
+
+    @Test
+    void testFormatNames() {
+        assertEquals(ItemRenderer.Format.ALIGNED, ItemRenderer.Format.getFormat(null));
+        assertEquals(ItemRenderer.Format.CSV, ItemRenderer.Format.getFormat("csv"));
+        assertEquals("json", ItemRenderer.Format.JSON.getName());
+        assertThrows(IllegalArgumentException.class, () -> ItemRenderer.Format.getFormat("xml"));
+    }
+}